@@ -16,6 +16,7 @@ import io.vertx.codetrans.expression.IdentifierModel;
 import io.vertx.codetrans.expression.ThisModel;
 import io.vertx.codetrans.statement.StatementModel;
 
+import java.util.Map;
 import java.util.function.Consumer;
 
 /**
@@ -27,6 +28,26 @@ public interface CodeBuilder {
 
   String render(RunnableCompilationUnit unit);
 
+  /**
+   * Render several units in a single bundle declaring once what the units share, each unit is exported under
+   * its key. The default implementation throws {@code UnsupportedOperationException}.
+   *
+   * @param units the units keyed by export name
+   * @return the bundle source
+   */
+  default String renderBundle(Map<String, RunnableCompilationUnit> units) {
+    throw new UnsupportedOperationException("Bundle not supported");
+  }
+
+  /**
+   * Include the declarations another builder of the same language collected while building models, e.g the
+   * imports of a helper model shared by several compilation units. The default implementation does nothing.
+   *
+   * @param other the other builder
+   */
+  default void include(CodeBuilder other) {
+  }
+
   default ExpressionModel combine(ExpressionModel left, String op, ExpressionModel right) {
     return new BinaryExpressionModel(this, left, op, right);
   }
@@ -53,14 +74,59 @@ public interface CodeBuilder {
     return new IdentifierModel(this, name, scope);
   }
 
+  /**
+   * Create an identifier of a known static type, the default implementation returns
+   * {@link #identifier(String, VariableScope)} viewed as the type.
+   *
+   * @param name the identifier name
+   * @param scope the identifier scope
+   * @param type the identifier type
+   * @return the identifier expression
+   */
+  default ExpressionModel identifier(String name, VariableScope scope, TypeInfo type) {
+    return identifier(name, scope).as(type);
+  }
+
   StatementModel variableDecl(VariableScope scope, TypeInfo type, String name, ExpressionModel initializer);
 
   StatementModel enhancedForLoop(String variableName, ExpressionModel expression, StatementModel body);
 
+  /**
+   * Create an enhanced for loop knowing the static types of the loop, the default implementation ignores them.
+   *
+   * @param variableName the loop variable name
+   * @param variableType the loop variable type
+   * @param expression the iterated expression
+   * @param expressionType the iterated expression type, an array is a {@code List} of its component type, or null
+   *                       when it is neither a declared type nor an array
+   * @param closures true when the body declares closures that may capture the loop variable
+   * @param body the loop body
+   * @return the loop statement
+   */
+  default StatementModel enhancedForLoop(String variableName, TypeInfo variableType, ExpressionModel expression, TypeInfo expressionType, boolean closures, StatementModel body) {
+    return enhancedForLoop(variableName, expression, body);
+  }
+
   StatementModel forLoop(StatementModel initializer, ExpressionModel condition, ExpressionModel update, StatementModel body);
 
   StatementModel sequenceForLoop(String variableName, ExpressionModel fromValue, ExpressionModel toValue, StatementModel body);
 
+  /**
+   * Create a sequence loop knowing the type of the loop variable and whether its body declares closures, the
+   * default implementation ignores them.
+   *
+   * @param variableName the loop variable name
+   * @param variableType the loop variable type
+   * @param fromValue the first value
+   * @param toValue the upper bound, excluded
+   * @param closures true when the body declares closures that may capture the loop variable
+   * @param body the loop body
+   * @return the loop statement
+   */
+  default StatementModel sequenceForLoop(String variableName, TypeInfo variableType, ExpressionModel fromValue, ExpressionModel toValue, boolean closures, StatementModel body) {
+    return sequenceForLoop(variableName, fromValue, toValue, body);
+  }
+
   default ExpressionModel jsonArrayEncoder(ExpressionModel expression) {
     return render(writer -> {
       writer.renderJsonArrayToString(expression);
@@ -0,0 +1,239 @@
+package io.vertx.codetrans;
+
+import io.vertx.codetrans.annotations.CodeTranslate;
+import io.vertx.codetrans.lang.groovy.GroovyLang;
+import io.vertx.codetrans.lang.js.JavaScriptLang;
+import io.vertx.codetrans.lang.kotlin.KotlinLang;
+import io.vertx.codetrans.lang.ruby.RubyLang;
+import io.vertx.codetrans.lang.scala.ScalaLang;
+
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.FilerException;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * An annotation processor translating the {@link CodeTranslate} annotated methods of a project during its build.
+ * The processor is not registered as a service, a build opts in with {@code -processor} or its build tool
+ * equivalent. It needs the javac compiler, a processing environment wrapped by the build tool is unwrapped to the
+ * javac one.<p/>
+ *
+ * The translation of a method is written with the {@link javax.annotation.processing.Filer} as a class output
+ * resource in the package of its class: the {@code start} method of {@code echo.Server} is written
+ * to {@code echo/Server.groovy} and any other method {@code m} to {@code echo/Server_m.groovy}.<p/>
+ *
+ * The processor is <i>isolating</i>: the translations of a class only depend on the class and the single originating
+ * element of its resources is the class, so an incremental build only translates again the changed sources. A method
+ * that cannot be translated to a language is reported as a warning and does not fail the build, so are overloaded
+ * methods whose translations would have the same name and a translation whose resource was already written. The
+ * processor is configured with the processor options:
+ *
+ * <ul>
+ *   <li>{@code codetrans.langs}: the comma separated extensions of the languages to translate to, all by default</li>
+ *   <li>{@code codetrans.constantFolding}: see {@link TranslationOptions#setConstantFolding}</li>
+ *   <li>{@code codetrans.treeShaking}: see {@link TranslationOptions#setTreeShaking}</li>
+ * </ul>
+ *
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class CodeTranslateProcessor extends AbstractProcessor {
+
+  public static final String LANGS_OPTION = "codetrans.langs";
+  public static final String CONSTANT_FOLDING_OPTION = "codetrans.constantFolding";
+  public static final String TREE_SHAKING_OPTION = "codetrans.treeShaking";
+
+  /**
+   * The languages by extension, a language is created only when it is translated to so the processor does not
+   * load the runtime of the other languages.
+   */
+  private static final Map<String, Supplier<Lang>> LANGS = new LinkedHashMap<>();
+
+  static {
+    LANGS.put("groovy", GroovyLang::new);
+    LANGS.put("js", JavaScriptLang::new);
+    LANGS.put("kt", KotlinLang::new);
+    LANGS.put("rb", RubyLang::new);
+    LANGS.put("scala", ScalaLang::new);
+  }
+
+  private List<Lang> langs;
+  private CodeTranslator translator;
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(CodeTranslate.class.getName());
+  }
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return new HashSet<>(Arrays.asList(LANGS_OPTION, CONSTANT_FOLDING_OPTION, TREE_SHAKING_OPTION));
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    langs = Collections.emptyList();
+    Map<String, String> options = processingEnv.getOptions();
+    TranslationOptions translationOptions = new TranslationOptions()
+        .setConstantFolding(Boolean.parseBoolean(options.get(CONSTANT_FOLDING_OPTION)))
+        .setTreeShaking(Boolean.parseBoolean(options.get(TREE_SHAKING_OPTION)));
+    ProcessingEnvironment javacEnv = unwrap(processingEnv);
+    if (javacEnv == null) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot translate @CodeTranslate methods, the processing environment "
+          + processingEnv.getClass().getName() + " is not provided by javac");
+      return;
+    }
+    try {
+      translator = new CodeTranslator(javacEnv, translationOptions);
+      langs = langs(options.get(LANGS_OPTION));
+    } catch (Exception | LinkageError e) {
+      translator = null;
+      langs = Collections.emptyList();
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot translate @CodeTranslate methods: " + e);
+    }
+  }
+
+  /**
+   * Unwrap the javac processing environment, a build tool like Gradle wraps it to track the generated files.
+   *
+   * @return the javac environment or null when it cannot be found
+   */
+  static ProcessingEnvironment unwrap(ProcessingEnvironment env) {
+    Set<ProcessingEnvironment> visited = new HashSet<>();
+    while (env != null && visited.add(env)) {
+      if (env instanceof JavacProcessingEnvironment) {
+        return env;
+      }
+      ProcessingEnvironment delegate = null;
+      for (Class<?> c = env.getClass();c != null && delegate == null;c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (ProcessingEnvironment.class.isAssignableFrom(field.getType())) {
+            try {
+              field.setAccessible(true);
+              delegate = (ProcessingEnvironment) field.get(env);
+            } catch (Exception ignore) {
+              // Not accessible
+            }
+            if (delegate != null) {
+              break;
+            }
+          }
+        }
+      }
+      env = delegate;
+    }
+    return null;
+  }
+
+  /**
+   * Create the languages of a comma separated list of extensions.
+   *
+   * @param extensions the extensions or null for all the languages
+   * @return the languages
+   * @throws IllegalArgumentException when an extension is unknown
+   */
+  static List<Lang> langs(String extensions) {
+    Set<String> selected = extensions != null ? new HashSet<>(Arrays.asList(extensions.trim().split("\\s*,\\s*"))) : LANGS.keySet();
+    Set<String> unknown = new HashSet<>(selected);
+    unknown.removeAll(LANGS.keySet());
+    if (unknown.size() > 0) {
+      throw new IllegalArgumentException("Unknown " + LANGS_OPTION + " languages " + unknown);
+    }
+    List<Lang> langs = new ArrayList<>();
+    LANGS.forEach((extension, supplier) -> {
+      if (selected.contains(extension)) {
+        langs.add(supplier.get());
+      }
+    });
+    return langs;
+  }
+
+  /**
+   * @param simpleName the binary name of the class without its package
+   * @param method the translated method
+   * @param lang the language
+   * @return the name of the translation relative to the package of the class
+   */
+  static String translationName(String simpleName, String method, Lang lang) {
+    return (method.equals("start") ? simpleName : simpleName + "_" + method) + "." + lang.getExtension();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (translator == null) {
+      return false;
+    }
+    Map<TypeElement, Map<String, List<ExecutableElement>>> methodsByType = new LinkedHashMap<>();
+    for (Element annotatedElt : roundEnv.getElementsAnnotatedWith(CodeTranslate.class)) {
+      ExecutableElement methodElt = (ExecutableElement) annotatedElt;
+      TypeElement typeElt = (TypeElement) methodElt.getEnclosingElement();
+      methodsByType.computeIfAbsent(typeElt, k -> new LinkedHashMap<>())
+          .computeIfAbsent(methodElt.getSimpleName().toString(), k -> new ArrayList<>())
+          .add(methodElt);
+    }
+    methodsByType.forEach((typeElt, methods) -> methods.forEach((name, overloads) -> {
+      if (overloads.size() > 1) {
+        // The translations of the overloads would be written to the same resource
+        for (ExecutableElement methodElt : overloads) {
+          processingEnv.getMessager().printMessage(Diagnostic.Kind.MANDATORY_WARNING, "Could not translate overloaded method " + name, methodElt);
+        }
+      } else {
+        process(typeElt, overloads.get(0));
+      }
+    }));
+    return false;
+  }
+
+  private void process(TypeElement typeElt, ExecutableElement methodElt) {
+    for (Lang lang : langs) {
+      String translation;
+      try {
+        translation = translator.translate(methodElt, lang);
+      } catch (Exception e) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.MANDATORY_WARNING, "Could not translate to " + lang.getExtension() + ": " + e.getMessage(), methodElt);
+        continue;
+      }
+      write(typeElt, methodElt.getSimpleName().toString(), lang, translation);
+    }
+  }
+
+  private void write(TypeElement typeElt, String method, Lang lang, String translation) {
+    PackageElement pkgElt = processingEnv.getElementUtils().getPackageOf(typeElt);
+    String pkg = pkgElt.getQualifiedName().toString();
+    String name = processingEnv.getElementUtils().getBinaryName(typeElt).toString();
+    if (pkg.length() > 0) {
+      name = name.substring(pkg.length() + 1);
+    }
+    name = translationName(name, method, lang);
+    try {
+      FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, pkg, name, typeElt);
+      try (Writer writer = file.openWriter()) {
+        writer.write(translation);
+      }
+    } catch (FilerException e) {
+      // The resource was already written, e.g by the translation of another class with the same name
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.MANDATORY_WARNING, "Could not write " + name + ": " + e.getMessage(), typeElt);
+    } catch (Exception e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + name + ": " + e.getMessage(), typeElt);
+    }
+  }
+}
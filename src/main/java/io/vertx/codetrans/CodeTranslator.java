@@ -1,5 +1,8 @@
 package io.vertx.codetrans;
 
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.code.Flags;
@@ -10,6 +13,7 @@ import com.sun.tools.javac.util.Context;
 import io.vertx.codegen.type.TypeInfo;
 import io.vertx.codegen.type.TypeUse;
 import io.vertx.codegen.type.TypeMirrorFactory;
+import io.vertx.codetrans.annotations.CodeTranslate;
 import io.vertx.codetrans.statement.StatementModel;
 
 import javax.annotation.processing.ProcessingEnvironment;
@@ -18,14 +22,21 @@ import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.WildcardType;
 import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -39,8 +50,14 @@ public class CodeTranslator {
   private final Attr attr;
   private final TypeMirrorFactory factory;
   private final Types typeUtils;
+  private final TranslationOptions options;
 
   public CodeTranslator(ProcessingEnvironment processingEnv) {
+    this(processingEnv, new TranslationOptions());
+  }
+
+  public CodeTranslator(ProcessingEnvironment processingEnv, TranslationOptions options) {
+    this.options = new TranslationOptions(options);
     this.trees = Trees.instance(processingEnv);
     this.SystemType = (DeclaredType) processingEnv.getElementUtils().getTypeElement(System.class.getName()).asType();
     this.ThrowableType = (DeclaredType) processingEnv.getElementUtils().getTypeElement(Throwable.class.getName()).asType();
@@ -57,6 +74,14 @@ public class CodeTranslator {
           } else if (wildcardType.getSuperBound() != null) {
             return super.create(use, wildcardType.getSuperBound());
           }
+        } else if (type.getKind() == TypeKind.ARRAY) {
+          // An array is viewed as a list of its component type
+          TypeMirror componentType = ((ArrayType) type).getComponentType();
+          if (componentType.getKind().isPrimitive()) {
+            componentType = processingEnv.getTypeUtils().boxedClass((PrimitiveType) componentType).asType();
+          }
+          TypeElement listElt = processingEnv.getElementUtils().getTypeElement(List.class.getName());
+          return super.create(use, processingEnv.getTypeUtils().getDeclaredType(listElt, componentType));
         }
         return super.create(use, type);
       }
@@ -64,65 +89,339 @@ public class CodeTranslator {
   }
 
   public String translate(ExecutableElement methodElt, Lang lang) {
+    ModelBuilder builder = builder(methodElt, lang);
+    return TranslationBudget.run(budget(methodElt), () -> translate(methodElt, lang, builder));
+  }
+
+  /**
+   * Translate a method like {@link #translate(ExecutableElement, Lang)} without throwing, a failure is returned
+   * with the {@link TranslationDiagnostic} of the innermost tree that could not be translated. The method is first
+   * checked with {@link #check}, a method that does not pass the check fails without building any model. The
+   * attribution of the class, the check and the translation are charged to the same {@link TranslationBudget}.
+   *
+   * @param methodElt the method to translate
+   * @param lang the target language
+   * @return the translation result
+   */
+  public Result tryTranslate(ExecutableElement methodElt, Lang lang) {
+    TranslationBudget budget = budget(methodElt);
+    List<TranslationDiagnostic> diagnostics;
+    try {
+      diagnostics = TranslationBudget.run(budget, () -> check(methodElt, lang));
+    } catch (Exception e) {
+      return new Result.Failure(e, diagnostic(methodElt, lang, null, e));
+    }
+    if (diagnostics.size() > 0) {
+      TranslationDiagnostic diagnostic = diagnostics.get(0);
+      return new Result.Failure(new UnsupportedOperationException(diagnostic.getMessage()), diagnostic);
+    }
+    ModelBuilder builder = builder(methodElt, lang);
+    try {
+      return new Result.Source(TranslationBudget.run(budget, () -> translate(methodElt, lang, builder)));
+    } catch (Exception e) {
+      return new Result.Failure(e, diagnostic(methodElt, lang, builder, e));
+    }
+  }
+
+  /**
+   * Check the body of a method with a {@link SupportChecker}, without building any model.
+   *
+   * @param methodElt the method to check
+   * @param lang the target language
+   * @return the diagnostics of the unsupported trees, empty when the method passes the check
+   */
+  public List<TranslationDiagnostic> check(ExecutableElement methodElt, Lang lang) {
+    TypeElement typeElt = (TypeElement) methodElt.getEnclosingElement();
+    attributeClass(typeElt);
+    TreePath path = trees.getPath(methodElt);
+    String method = typeElt.getQualifiedName() + "." + methodElt.getSimpleName();
+    SupportChecker checker = new SupportChecker(path.getCompilationUnit(), trees.getSourcePositions(), lang, method, options);
+    return checker.check(((MethodTree) path.getLeaf()).getBody());
+  }
+
+  /**
+   * @return the budget of a method translation or null when the options have no limits
+   */
+  private TranslationBudget budget(ExecutableElement methodElt) {
+    return TranslationBudget.create(((TypeElement) methodElt.getEnclosingElement()).getQualifiedName() + "." + methodElt.getSimpleName(), options);
+  }
+
+  private ModelBuilder builder(ExecutableElement methodElt, Lang lang) {
+    return new ModelBuilder(trees, trees.getPath(methodElt), SystemType, ThrowableType, factory, typeUtils, lang, options);
+  }
+
+  private String translate(ExecutableElement methodElt, Lang lang, ModelBuilder builder) {
     TypeElement typeElt = (TypeElement) methodElt.getEnclosingElement();
     attributeClass(typeElt);
     TreePath path = trees.getPath(methodElt);
-    ModelBuilder builder = new ModelBuilder(trees, path, SystemType, ThrowableType, factory, typeUtils, lang);
     VisitContext visitContext = new VisitContext(lang.codeBuilder());
     MethodModel main = (MethodModel) builder.build(path, visitContext);
-    Map<String, MethodModel> methods = new HashMap<>();
-    Map<String, StatementModel> fields = new HashMap<>();
-    Map<String, Boolean> pending = visitContext.getReferencedMethods().stream().collect(Collectors.toMap(k -> k, k -> true));
-    visitContext.getReferencedFields().forEach(field -> {
-      pending.put(field, false);
-    });
-    while (pending.size() > 0) {
-      Iterator<Map.Entry<String, Boolean>> it = pending.entrySet().iterator();
-      Map.Entry<String, Boolean> entry = it.next();
-      String name = entry.getKey();
-      it.remove();
-      VisitContext other = null;
-      if (entry.getValue()) {
-        for (Element enclosed : typeElt.getEnclosedElements()) {
-          if (enclosed instanceof ExecutableElement && enclosed.getSimpleName().toString().equals(name)) {
-            other = new VisitContext(visitContext.builder);
-            MethodModel method = (MethodModel) builder.build(trees.getPath(enclosed), other);
-            methods.put(name, method);
-          }
+    References references = new References(typeElt, builder, () -> visitContext.builder);
+    RunnableCompilationUnit unit = references.unit(main, visitContext);
+    String s = visitContext.builder.render(unit);
+    return s;
+  }
+
+  /**
+   * Translate all the {@link CodeTranslate} annotated methods of a class at once. The reference graph of the class
+   * is resolved once and each helper method or field model is built once, then shared by the compilation units
+   * of the annotated methods referencing it.<p/>
+   *
+   * Each annotated method is built and rendered with its own {@link CodeBuilder}, a shared helper is built with
+   * a builder of its own that is {@link CodeBuilder#include included} by the builder of each method referencing it,
+   * so a rendered unit only declares the imports / requires of the models it renders. The attribution of the class
+   * is shared by the methods and is not charged to their {@link TranslationBudget}.
+   *
+   * @param typeElt the class to translate
+   * @param lang the target language
+   * @return the translation result of each annotated method, keyed by method name, an overloaded method is a failure
+   */
+  public Map<String, Result> translateClass(TypeElement typeElt, Lang lang) {
+    attributeClass(typeElt);
+    Map<String, Result> results = new LinkedHashMap<>();
+    Map<String, MethodModel> mains = new LinkedHashMap<>();
+    Map<String, VisitContext> contexts = new HashMap<>();
+    Map<String, ExecutableElement> methodElts = new HashMap<>();
+    Map<String, TranslationBudget> budgets = new HashMap<>();
+    References references = null;
+    Set<String> overloaded = overloadedMethods(typeElt);
+    for (Element enclosed : typeElt.getEnclosedElements()) {
+      if (enclosed instanceof ExecutableElement && enclosed.getAnnotation(CodeTranslate.class) != null) {
+        String name = enclosed.getSimpleName().toString();
+        if (overloaded.contains(name)) {
+          results.putIfAbsent(name, overloadFailure((ExecutableElement) enclosed, lang));
+          continue;
         }
-      } else {
-        for (Element enclosed : typeElt.getEnclosedElements()) {
-          if (enclosed instanceof VariableElement && enclosed.getSimpleName().toString().equals(name)) {
-            other = new VisitContext(visitContext.builder);
-            StatementModel statement = (StatementModel) builder.build(trees.getPath(enclosed), other);
-            fields.put(name, statement);
-          }
+        TreePath path = trees.getPath(enclosed);
+        methodElts.put(name, (ExecutableElement) enclosed);
+        budgets.put(name, budget((ExecutableElement) enclosed));
+        if (references == null) {
+          ModelBuilder builder = new ModelBuilder(trees, path, SystemType, ThrowableType, factory, typeUtils, lang, options);
+          references = new References(typeElt, builder, lang::codeBuilder);
+        }
+        VisitContext visitContext = new VisitContext(lang.codeBuilder());
+        ModelBuilder builder = references.builder;
+        try {
+          mains.put(name, (MethodModel) TranslationBudget.run(budgets.get(name), () -> builder.build(path, visitContext)));
+          contexts.put(name, visitContext);
+        } catch (Exception e) {
+          results.put(name, new Result.Failure(e, diagnostic(methodElts.get(name), lang, references.builder, e)));
         }
       }
-      if (other == null) {
-        throw new UnsupportedOperationException("Field / method " + name + " could not be resolved ");
+    }
+    // Build all the units before rendering any of them so each builder has included the helpers it renders
+    Map<String, RunnableCompilationUnit> units = new HashMap<>();
+    for (Map.Entry<String, MethodModel> main : mains.entrySet()) {
+      References refs = references;
+      try {
+        units.put(main.getKey(), TranslationBudget.run(budgets.get(main.getKey()), () -> refs.unit(main.getValue(), contexts.get(main.getKey()))));
+      } catch (Exception e) {
+        results.put(main.getKey(), new Result.Failure(e, diagnostic(methodElts.get(main.getKey()), lang, references.builder, e)));
+      }
+    }
+    for (String name : mains.keySet()) {
+      RunnableCompilationUnit unit = units.get(name);
+      if (unit != null) {
+        CodeBuilder codeBuilder = contexts.get(name).builder;
+        try {
+          results.put(name, new Result.Source(TranslationBudget.run(budgets.get(name), () -> codeBuilder.render(unit))));
+        } catch (Exception e) {
+          results.put(name, new Result.Failure(e, diagnostic(methodElts.get(name), lang, null, e)));
+        }
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Translate all the {@link CodeTranslate} annotated methods of several classes in a single bundle rendered by
+   * {@link CodeBuilder#renderBundle}, the bundle declares once the modules used by all the methods.
+   *
+   * @param typeElts the classes to translate
+   * @param lang the target language
+   * @return the bundle source
+   * @throws UnsupportedOperationException when the language has no bundle format
+   */
+  public String translateBundle(Iterable<TypeElement> typeElts, Lang lang) {
+    CodeBuilder codeBuilder = lang.codeBuilder();
+    Map<String, RunnableCompilationUnit> units = new LinkedHashMap<>();
+    for (TypeElement typeElt : typeElts) {
+      attributeClass(typeElt);
+      References references = null;
+      for (Element enclosed : typeElt.getEnclosedElements()) {
+        if (enclosed instanceof ExecutableElement && enclosed.getAnnotation(CodeTranslate.class) != null) {
+          TreePath path = trees.getPath(enclosed);
+          if (references == null) {
+            ModelBuilder builder = new ModelBuilder(trees, path, SystemType, ThrowableType, factory, typeUtils, lang, options);
+            references = new References(typeElt, builder, () -> codeBuilder);
+          }
+          VisitContext visitContext = new VisitContext(codeBuilder);
+          MethodModel main = (MethodModel) references.builder.build(path, visitContext);
+          units.put(typeElt.getQualifiedName() + "." + enclosed.getSimpleName(), references.unit(main, visitContext));
+        }
       }
-      for (String method : other.getReferencedMethods()) {
-        if (fields.containsKey(method)) {
-          throw new UnsupportedOperationException("Duplicate field / method " + method);
+    }
+    return codeBuilder.renderBundle(units);
+  }
+
+  /**
+   * The helper methods and fields of a class referenced by translated methods. The model of a helper is built
+   * once and reused by any compilation unit referencing it, the builder of the unit includes the declarations
+   * of the builder that built the helper.
+   */
+  private class References {
+
+    final TypeElement typeElt;
+    final ModelBuilder builder;
+    final Supplier<CodeBuilder> codeBuilders;
+    final Map<String, Reference> resolvedMethods = new HashMap<>();
+    final Map<String, Reference> resolvedFields = new HashMap<>();
+
+    References(TypeElement typeElt, ModelBuilder builder, Supplier<CodeBuilder> codeBuilders) {
+      this.typeElt = typeElt;
+      this.builder = builder;
+      this.codeBuilders = codeBuilders;
+    }
+
+    RunnableCompilationUnit unit(MethodModel main, VisitContext visitContext) {
+      Map<String, MethodModel> methods = new HashMap<>();
+      Map<String, StatementModel> fields = new HashMap<>();
+      Map<String, Boolean> pending = visitContext.getReferencedMethods().stream().collect(Collectors.toMap(k -> k, k -> true));
+      visitContext.getReferencedFields().forEach(field -> {
+        pending.put(field, false);
+      });
+      while (pending.size() > 0) {
+        Iterator<Map.Entry<String, Boolean>> it = pending.entrySet().iterator();
+        Map.Entry<String, Boolean> entry = it.next();
+        String name = entry.getKey();
+        it.remove();
+        Reference reference = resolve(name, entry.getValue());
+        if (reference.codeBuilder != visitContext.builder) {
+          visitContext.builder.include(reference.codeBuilder);
+        }
+        if (entry.getValue()) {
+          methods.put(name, (MethodModel) reference.model);
+        } else {
+          fields.put(name, (StatementModel) reference.model);
+        }
+        for (String method : reference.referencedMethods) {
+          if (fields.containsKey(method)) {
+            throw new UnsupportedOperationException("Duplicate field / method " + method);
+          }
+          if (!methods.containsKey(method)) {
+            pending.put(method, true);
+          }
         }
-        if (!methods.containsKey(method)) {
-          pending.put(method, true);
+        for (String field : reference.referencedFields) {
+          if (methods.containsKey(field)) {
+            throw new UnsupportedOperationException("Duplicate field / method " + field);
+          }
+          if (!fields.containsKey(field)) {
+            pending.put(field, false);
+          }
         }
       }
-      for (String field : other.getReferencedFields()) {
-        if (methods.containsKey(field)) {
-          throw new UnsupportedOperationException("Duplicate field / method " + field);
+      return new RunnableCompilationUnit(main, methods, fields, options.isParallelRendering());
+    }
+
+    private Reference resolve(String name, boolean method) {
+      Map<String, Reference> resolved = method ? resolvedMethods : resolvedFields;
+      Reference reference = resolved.get(name);
+      if (reference == null) {
+        try {
+          reference = build(name, method);
+        } catch (TranslationLimitException e) {
+          // The limit of a method, the reference may be built by another method
+          throw e;
+        } catch (RuntimeException e) {
+          reference = new Reference(e);
         }
-        if (!fields.containsKey(field)) {
-          pending.put(field, false);
+        resolved.put(name, reference);
+      }
+      if (reference.failure != null) {
+        throw reference.failure;
+      }
+      return reference;
+    }
+
+    private Reference build(String name, boolean method) {
+      VisitContext other = null;
+      CodeModel model = null;
+      for (Element enclosed : typeElt.getEnclosedElements()) {
+        if ((method ? enclosed instanceof ExecutableElement : enclosed instanceof VariableElement) && enclosed.getSimpleName().toString().equals(name)) {
+          other = new VisitContext(codeBuilders.get());
+          model = builder.build(trees.getPath(enclosed), other);
         }
       }
+      if (other == null) {
+        throw new UnsupportedOperationException("Field / method " + name + " could not be resolved ");
+      }
+      return new Reference(model, other.builder, other.getReferencedMethods(), other.getReferencedFields());
     }
+  }
 
-    RunnableCompilationUnit unit = new RunnableCompilationUnit(main, methods, fields);
-    String s = visitContext.builder.render(unit);
-    return s;
+  private static class Reference {
+
+    final CodeModel model;
+    final CodeBuilder codeBuilder;
+    final Set<String> referencedMethods;
+    final Set<String> referencedFields;
+    final RuntimeException failure;
+
+    Reference(CodeModel model, CodeBuilder codeBuilder, Set<String> referencedMethods, Set<String> referencedFields) {
+      this.model = model;
+      this.codeBuilder = codeBuilder;
+      this.referencedMethods = referencedMethods;
+      this.referencedFields = referencedFields;
+      this.failure = null;
+    }
+
+    Reference(RuntimeException failure) {
+      this.model = null;
+      this.codeBuilder = null;
+      this.referencedMethods = null;
+      this.referencedFields = null;
+      this.failure = failure;
+    }
+  }
+
+  /**
+   * @return the names of the {@link CodeTranslate} annotated methods of a class that are overloaded, their
+   *         translations cannot be keyed by name
+   */
+  static Set<String> overloadedMethods(TypeElement typeElt) {
+    Map<String, Long> counts = typeElt.getEnclosedElements().stream()
+        .filter(elt -> elt instanceof ExecutableElement && elt.getAnnotation(CodeTranslate.class) != null)
+        .collect(Collectors.groupingBy(elt -> elt.getSimpleName().toString(), Collectors.counting()));
+    return counts.entrySet().stream().filter(entry -> entry.getValue() > 1).map(Map.Entry::getKey).collect(Collectors.toSet());
+  }
+
+  /**
+   * @return the failure reported for an overloaded method translated by name
+   */
+  Result overloadFailure(ExecutableElement methodElt, Lang lang) {
+    UnsupportedOperationException failure = new UnsupportedOperationException("Overloaded method " + methodElt.getSimpleName());
+    return new Result.Failure(failure, diagnostic(methodElt, lang, null, failure));
+  }
+
+  /**
+   * Create the diagnostic of a failure, located at the innermost tree that threw it or at the method when the
+   * failure did not happen while building the models, e.g when rendering.
+   */
+  private TranslationDiagnostic diagnostic(ExecutableElement methodElt, Lang lang, ModelBuilder builder, Throwable failure) {
+    TreePath methodPath = trees.getPath(methodElt);
+    CompilationUnitTree unit = methodPath.getCompilationUnit();
+    Tree tree = builder != null ? builder.failedTree(failure) : null;
+    long pos = trees.getSourcePositions().getStartPosition(unit, tree != null ? tree : methodPath.getLeaf());
+    long line = -1;
+    long column = -1;
+    if (pos != Diagnostic.NOPOS) {
+      line = unit.getLineMap().getLineNumber(pos);
+      column = unit.getLineMap().getColumnNumber(pos);
+    }
+    String method = ((TypeElement) methodElt.getEnclosingElement()).getQualifiedName() + "." + methodElt.getSimpleName();
+    String message = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getName();
+    return new TranslationDiagnostic(unit.getSourceFile().getName(), line, column, tree != null ? tree.getKind() : null, lang.getExtension(), method, message);
   }
 
   private void attributeClass(Element classElement) {
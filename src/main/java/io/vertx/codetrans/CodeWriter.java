@@ -27,6 +27,7 @@ public abstract class CodeWriter implements Appendable {
   private int indent = 0;
   private boolean first = true;
   private StringBuilder buffer = new StringBuilder();
+  private final TranslationBudget budget = TranslationBudget.current();
 
   public CodeWriter(CodeBuilder builder) {
     this.builder = builder;
@@ -77,6 +78,9 @@ public abstract class CodeWriter implements Appendable {
       }
     }
     buffer.append(c);
+    if (budget != null) {
+      budget.output(buffer.length());
+    }
     return this;
   }
 
@@ -336,8 +340,31 @@ public abstract class CodeWriter implements Appendable {
 
   public abstract void renderJsonObjectMemberSelect(ExpressionModel expression, String name);
 
+  /**
+   * Render the member of a json object read by a typed getter, e.g {@code getString}, the default implementation
+   * ignores the type.
+   *
+   * @param expression the json object
+   * @param name the member name
+   * @param type the type returned by the getter
+   */
+  public void renderJsonObjectMemberSelect(ExpressionModel expression, String name, TypeInfo type) {
+    renderJsonObjectMemberSelect(expression, name);
+  }
+
   public abstract void renderDataObjectMemberSelect(ExpressionModel expression, String name);
 
+  /**
+   * Render the property of a data object read by its getter, the default implementation ignores the type.
+   *
+   * @param expression the data object
+   * @param name the property name
+   * @param type the type returned by the getter
+   */
+  public void renderDataObjectMemberSelect(ExpressionModel expression, String name, TypeInfo type) {
+    renderDataObjectMemberSelect(expression, name);
+  }
+
   public void renderJsonArrayGet(ExpressionModel expression, ExpressionModel index) {
     expression.render(this);
     append('[');
@@ -345,6 +372,18 @@ public abstract class CodeWriter implements Appendable {
     append(']');
   }
 
+  /**
+   * Render the element of a json array read by a typed getter, e.g {@code getString}, the default implementation
+   * ignores the type.
+   *
+   * @param expression the json array
+   * @param index the element index
+   * @param type the type returned by the getter
+   */
+  public void renderJsonArrayGet(ExpressionModel expression, ExpressionModel index, TypeInfo type) {
+    renderJsonArrayGet(expression, index);
+  }
+
   public void renderReturn(ExpressionModel expression) {
     append("return");
     if (expression != null) {
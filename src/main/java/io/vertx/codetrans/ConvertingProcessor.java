@@ -11,11 +11,14 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.tools.*;
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -27,35 +30,223 @@ public class ConvertingProcessor extends AbstractProcessor {
   private static final Charset charset = Charset.forName("UTF-8");
 
   public static Map<Lang, Result> convert(ClassLoader loader, List<Lang> langs, String source, String fqn, String method) throws Exception {
+    return convert(loader, langs, source, fqn, method, new TranslationOptions());
+  }
+
+  public static Map<Lang, Result> convert(ClassLoader loader, List<Lang> langs, String source, String fqn, String method, TranslationOptions options) throws Exception {
+    URL url = resolve(loader, source);
+    if (url.getProtocol().equals("file")) {
+      String file = new File(url.toURI()).getAbsolutePath();
+      return convertFromFiles(loader, langs, file, fqn, method, options);
+    } else {
+      return convert(loader, langs, SourceFileObject.load(source, url), fqn, method, options);
+    }
+  }
+
+  /**
+   * Convert a Java source held in memory.
+   *
+   * @param source the source content, it must declare the top level class {@code fqn}
+   */
+  public static Map<Lang, Result> convertSource(ClassLoader loader, List<Lang> langs, CharSequence source, String fqn, String method) throws Exception {
+    return convertSource(loader, langs, source, fqn, method, new TranslationOptions());
+  }
+
+  public static Map<Lang, Result> convertSource(ClassLoader loader, List<Lang> langs, CharSequence source, String fqn, String method, TranslationOptions options) throws Exception {
+    return convert(loader, langs, new SourceFileObject(fqn, source), fqn, method, options);
+  }
+
+  public static Map<Lang, Result> convert(ClassLoader loader, List<Lang> langs, JavaFileObject source, String fqn, String method) throws Exception {
+    return convert(loader, langs, source, fqn, method, new TranslationOptions());
+  }
+
+  public static Map<Lang, Result> convert(ClassLoader loader, List<Lang> langs, JavaFileObject source, String fqn, String method, TranslationOptions options) throws Exception {
+    ConvertingProcessor processor = new ConvertingProcessor(langs, fqn, method, options);
+    compile(source, processor);
+    return processor.getResults();
+  }
+
+  public static Map<Lang, Result> convertFromFiles(ClassLoader loader, List<Lang> lang, String file, String fqn, String method) throws Exception {
+    return convertFromFiles(loader, lang, file, fqn, method, new TranslationOptions());
+  }
+
+  public static Map<Lang, Result> convertFromFiles(ClassLoader loader, List<Lang> lang, String file, String fqn, String method, TranslationOptions options) throws Exception {
+    ConvertingProcessor processor = new ConvertingProcessor(lang, fqn, method, options);
+    compile(file, processor);
+    return processor.getResults();
+  }
+
+  /**
+   * Convert all the {@link CodeTranslate} methods of a class at once, see {@link CodeTranslator#translateClass}.
+   *
+   * @return the results keyed by method name then by language
+   */
+  public static Map<String, Map<Lang, Result>> convertClass(ClassLoader loader, List<Lang> langs, String source, String fqn) throws Exception {
+    return convertClass(loader, langs, source, fqn, new TranslationOptions());
+  }
+
+  public static Map<String, Map<Lang, Result>> convertClass(ClassLoader loader, List<Lang> langs, String source, String fqn, TranslationOptions options) throws Exception {
+    URL url = resolve(loader, source);
+    if (url.getProtocol().equals("file")) {
+      String file = new File(url.toURI()).getAbsolutePath();
+      return convertClassFromFiles(loader, langs, file, fqn, options);
+    } else {
+      return convertClass(loader, langs, SourceFileObject.load(source, url), fqn, options);
+    }
+  }
+
+  public static Map<String, Map<Lang, Result>> convertClassSource(ClassLoader loader, List<Lang> langs, CharSequence source, String fqn) throws Exception {
+    return convertClassSource(loader, langs, source, fqn, new TranslationOptions());
+  }
+
+  public static Map<String, Map<Lang, Result>> convertClassSource(ClassLoader loader, List<Lang> langs, CharSequence source, String fqn, TranslationOptions options) throws Exception {
+    return convertClass(loader, langs, new SourceFileObject(fqn, source), fqn, options);
+  }
+
+  public static Map<String, Map<Lang, Result>> convertClass(ClassLoader loader, List<Lang> langs, JavaFileObject source, String fqn) throws Exception {
+    return convertClass(loader, langs, source, fqn, new TranslationOptions());
+  }
+
+  public static Map<String, Map<Lang, Result>> convertClass(ClassLoader loader, List<Lang> langs, JavaFileObject source, String fqn, TranslationOptions options) throws Exception {
+    ConvertingProcessor processor = new ConvertingProcessor(langs, fqn, null, options);
+    compile(source, processor);
+    return processor.getClassResults();
+  }
+
+  public static Map<String, Map<Lang, Result>> convertClassFromFiles(ClassLoader loader, List<Lang> langs, String file, String fqn) throws Exception {
+    return convertClassFromFiles(loader, langs, file, fqn, new TranslationOptions());
+  }
+
+  public static Map<String, Map<Lang, Result>> convertClassFromFiles(ClassLoader loader, List<Lang> langs, String file, String fqn, TranslationOptions options) throws Exception {
+    ConvertingProcessor processor = new ConvertingProcessor(langs, fqn, null, options);
+    compile(file, processor);
+    return processor.getClassResults();
+  }
+
+  /**
+   * Convert separately each {@link CodeTranslate} annotated method of a class with a single compilation, the
+   * translation of a method is the same than {@link #convert(ClassLoader, List, String, String, String, TranslationOptions)}.
+   *
+   * @return the results keyed by method name
+   */
+  public static Map<String, Map<Lang, Result>> convertMethods(ClassLoader loader, List<Lang> langs, String source, String fqn, TranslationOptions options) throws Exception {
+    ConvertingProcessor processor = new ConvertingProcessor(langs, fqn, null, options);
+    processor.separate = true;
+    URL url = resolve(loader, source);
+    if (url.getProtocol().equals("file")) {
+      compile(new File(url.toURI()).getAbsolutePath(), processor);
+    } else {
+      compile(SourceFileObject.load(source, url), processor);
+    }
+    return processor.getClassResults();
+  }
+
+  /**
+   * Convert all the {@link CodeTranslate} annotated methods of several classes into a single bundle, see
+   * {@link CodeTranslator#translateBundle}.
+   *
+   * @param sources the source paths, e.g {@code echo/Server.java}
+   */
+  public static Result convertBundle(ClassLoader loader, Lang lang, List<String> sources, TranslationOptions options) throws Exception {
+    List<JavaFileObject> fileObjects = new ArrayList<>();
+    Set<String> fqns = new LinkedHashSet<>();
+    for (String source : sources) {
+      fileObjects.add(SourceFileObject.load(source, resolve(loader, source)));
+      fqns.add(source.substring(0, source.length() - ".java".length()).replace('/', '.'));
+    }
+    ConvertingProcessor processor = new ConvertingProcessor(Collections.singletonList(lang), fqns, options);
+    compile(manager -> fileObjects, String.join(", ", sources), processor);
+    return processor.bundleResult;
+  }
+
+  /**
+   * Convert all the {@link CodeTranslate} annotated methods of many sources, the translations of a source are
+   * handed to the {@code handler} once the source compiled. Each source is compiled on its own with a file manager
+   * shared by the batch and the conversion keeps going past the failing methods and sources: a failing method is
+   * reported with a {@link Result.Failure} carrying a {@link TranslationDiagnostic}, a source that cannot be
+   * resolved or compiled is reported once per language with a failure whose method is null and none of its
+   * translations is handed.
+   *
+   * @param sources the source paths, e.g {@code echo/Server.java}
+   * @param handler the handler of the translations, called on the current thread
+   */
+  public static void convertBatch(ClassLoader loader, List<Lang> langs, Iterable<String> sources, TranslationOptions options, Consumer<Translation> handler) {
+    StandardJavaFileManager manager = javac.getStandardFileManager(null, locale, charset);
+    try {
+      for (String source : sources) {
+        convertBatch(manager, loader, langs, source, options, handler);
+      }
+    } finally {
+      try {
+        manager.close();
+      } catch (IOException ignore) {
+      }
+    }
+  }
+
+  private static void convertBatch(StandardJavaFileManager manager, ClassLoader loader, List<Lang> langs, String source, TranslationOptions options, Consumer<Translation> handler) {
+    // The translations are buffered until the compilation tells whether the source is valid
+    List<Translation> translations = new ArrayList<>();
+    ConvertingProcessor processor = new ConvertingProcessor(langs, null, null, options);
+    processor.batch = (methodElt, lang, result) -> {
+      String method = ((TypeElement) methodElt.getEnclosingElement()).getQualifiedName() + "." + methodElt.getSimpleName();
+      translations.add(new Translation(source, method, lang, result));
+    };
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    boolean compiled;
+    try {
+      URL url = resolve(loader, source);
+      Iterable<? extends JavaFileObject> fileObjects;
+      if (url.getProtocol().equals("file")) {
+        fileObjects = manager.getJavaFileObjects(new File(url.toURI()).getAbsolutePath());
+      } else {
+        fileObjects = Collections.singletonList(SourceFileObject.load(source, url));
+      }
+      compiled = compile(manager, fileObjects, processor, diagnostics, new StringWriter());
+    } catch (Exception e) {
+      for (Lang lang : langs) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        handler.accept(new Translation(source, null, lang, new Result.Failure(e, new TranslationDiagnostic(source, -1, -1, null, lang.getExtension(), null, message))));
+      }
+      return;
+    }
+    if (compiled) {
+      translations.forEach(handler);
+    } else {
+      Diagnostic<? extends JavaFileObject> error = diagnostics.getDiagnostics().stream().filter(d -> d.getKind() == Diagnostic.Kind.ERROR).findFirst().orElse(null);
+      String message = error != null ? error.getMessage(locale) : "Compilation of " + source + " failed";
+      for (Lang lang : langs) {
+        TranslationDiagnostic diagnostic = error != null ?
+            new TranslationDiagnostic(error.getSource() != null ? error.getSource().getName() : source, error.getLineNumber(), error.getColumnNumber(), null, lang.getExtension(), null, message) :
+            new TranslationDiagnostic(source, -1, -1, null, lang.getExtension(), null, message);
+        handler.accept(new Translation(source, null, lang, new Result.Failure(new Exception(message), diagnostic)));
+      }
+    }
+  }
+
+  private static URL resolve(ClassLoader loader, String source) throws Exception {
     URL url = loader.getResource(source);
     if (url == null) {
       throw new Exception("Cannot resolve source " + source + "");
     }
-    String file = new File(url.toURI()).getAbsolutePath();
-    return convertFromFiles(loader, langs, file, fqn, method);
+    return url;
   }
 
-  public static Map<Lang, Result> convertFromFiles(ClassLoader loader, List<Lang> lang, String file, String fqn, String method) throws Exception {
+  private static void compile(String file, ConvertingProcessor processor) throws Exception {
+    compile(manager -> manager.getJavaFileObjects(file), file, processor);
+  }
+
+  private static void compile(JavaFileObject source, ConvertingProcessor processor) throws Exception {
+    compile(manager -> Collections.singletonList(source), source.getName(), processor);
+  }
+
+  private static void compile(Function<StandardJavaFileManager, Iterable<? extends JavaFileObject>> sources, String name, ConvertingProcessor processor) throws Exception {
     DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
-    StandardJavaFileManager manager = javac.getStandardFileManager(diagnostics, locale, charset);
-    Iterable<? extends JavaFileObject> fileObjects = manager.getJavaFileObjects(file);
     StringWriter out = new StringWriter();
-    JavaCompiler.CompilationTask task = javac.getTask(
-      out,
-      manager,
-      diagnostics,
-      Collections.<String>emptyList(),
-      Collections.<String>emptyList(),
-      fileObjects);
-    task.setLocale(locale);
-    ConvertingProcessor processor = new ConvertingProcessor(lang, fqn, method);
-    task.setProcessors(Collections.<Processor>singletonList(processor));
-    if (task.call()) {
-      return processor.getResults();
-    } else {
+    if (!compile(sources, processor, diagnostics, out)) {
       StringWriter message = new StringWriter();
       PrintWriter writer = new PrintWriter(message);
-      writer.append("Compilation of ").append(file).println(" failed:");
+      writer.append("Compilation of ").append(name).println(" failed:");
       for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics())  {
         writer.append(diagnostic.getMessage(locale));
       }
@@ -65,22 +256,63 @@ public class ConvertingProcessor extends AbstractProcessor {
     }
   }
 
+  private static boolean compile(Function<StandardJavaFileManager, Iterable<? extends JavaFileObject>> sources, ConvertingProcessor processor, DiagnosticCollector<JavaFileObject> diagnostics, StringWriter out) throws Exception {
+    StandardJavaFileManager manager = javac.getStandardFileManager(diagnostics, locale, charset);
+    return compile(manager, sources.apply(manager), processor, diagnostics, out);
+  }
+
+  private static boolean compile(StandardJavaFileManager manager, Iterable<? extends JavaFileObject> fileObjects, ConvertingProcessor processor, DiagnosticCollector<JavaFileObject> diagnostics, StringWriter out) throws Exception {
+    JavaCompiler.CompilationTask task = javac.getTask(
+      out,
+      manager,
+      diagnostics,
+      Collections.<String>emptyList(),
+      Collections.<String>emptyList(),
+      fileObjects);
+    task.setLocale(locale);
+    task.setProcessors(Collections.<Processor>singletonList(processor));
+    return task.call();
+  }
+
   private Map<Lang, Result> results = new LinkedHashMap<>();
+  private Map<String, Map<Lang, Result>> classResults = new LinkedHashMap<>();
   private List<Lang> langs;
   private final String fqn;
   private final String method;
+  private final TranslationOptions options;
   private CodeTranslator translator;
+  private Set<String> bundle;
+  private boolean separate;
+  private BatchHandler batch;
+  private Result bundleResult;
 
   public ConvertingProcessor(List<Lang> langs, String fqn, String method) {
+    this(langs, fqn, method, new TranslationOptions());
+  }
+
+  public ConvertingProcessor(List<Lang> langs, String fqn, String method, TranslationOptions options) {
     this.langs = langs;
     this.fqn = fqn;
     this.method = method;
+    this.options = options;
+  }
+
+  private ConvertingProcessor(List<Lang> langs, Set<String> bundle, TranslationOptions options) {
+    this(langs, null, null, options);
+    this.bundle = bundle;
   }
 
   public Map<Lang, Result> getResults() {
     return results;
   }
 
+  /**
+   * @return the results of a class conversion, i.e when this processor was created without a method
+   */
+  public Map<String, Map<Lang, Result>> getClassResults() {
+    return classResults;
+  }
+
   @Override
   public Set<String> getSupportedAnnotationTypes() {
     return Collections.singleton(CodeTranslate.class.getName());
@@ -89,27 +321,131 @@ public class ConvertingProcessor extends AbstractProcessor {
   @Override
   public synchronized void init(ProcessingEnvironment processingEnv) {
     super.init(processingEnv);
-    this.translator = new CodeTranslator(processingEnv);
+    this.translator = new CodeTranslator(processingEnv, options);
   }
 
   @Override
   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (bundle != null) {
+      processBundle(roundEnv);
+      return false;
+    }
+    Set<TypeElement> translatedTypes = new HashSet<>();
     for (Element annotatedElt : roundEnv.getElementsAnnotatedWith(CodeTranslate.class)) {
       ExecutableElement methodElt = (ExecutableElement) annotatedElt;
       TypeElement typeElt = (TypeElement) methodElt.getEnclosingElement();
-      if (typeElt.getQualifiedName().toString().equals(fqn) && methodElt.getSimpleName().toString().equals(method)) {
+      if (batch != null) {
         for (Lang lang : langs) {
-          Result result;
-          try {
-            String translation = translator.translate(methodElt, lang);
-            result = new Result.Source(translation);
-          } catch (Exception e) {
-            result = new Result.Failure(e);
+          batch.handle(methodElt, lang, translate(methodElt, lang));
+        }
+      } else if (typeElt.getQualifiedName().toString().equals(fqn)) {
+        if (separate) {
+          boolean overloaded = CodeTranslator.overloadedMethods(typeElt).contains(methodElt.getSimpleName().toString());
+          for (Lang lang : langs) {
+            Result result = overloaded ? translator.overloadFailure(methodElt, lang) : translate(methodElt, lang);
+            classResults.computeIfAbsent(methodElt.getSimpleName().toString(), k -> new LinkedHashMap<>()).put(lang, result);
+          }
+        } else if (method == null) {
+          if (translatedTypes.add(typeElt)) {
+            processClass(typeElt);
+          }
+        } else if (methodElt.getSimpleName().toString().equals(method)) {
+          for (Lang lang : langs) {
+            results.put(lang, translate(methodElt, lang));
           }
-          results.put(lang, result);
         }
       }
     }
     return false;
   }
+
+  private Result translate(ExecutableElement methodElt, Lang lang) {
+    return translator.tryTranslate(methodElt, lang);
+  }
+
+  private void processBundle(RoundEnvironment roundEnv) {
+    Set<TypeElement> types = new LinkedHashSet<>();
+    for (Element annotatedElt : roundEnv.getElementsAnnotatedWith(CodeTranslate.class)) {
+      TypeElement typeElt = (TypeElement) annotatedElt.getEnclosingElement();
+      if (bundle.contains(typeElt.getQualifiedName().toString())) {
+        types.add(typeElt);
+      }
+    }
+    if (types.size() > 0) {
+      try {
+        bundleResult = new Result.Source(translator.translateBundle(types, langs.get(0)));
+      } catch (Exception e) {
+        bundleResult = new Result.Failure(e);
+      }
+    }
+  }
+
+  private void processClass(TypeElement typeElt) {
+    for (Lang lang : langs) {
+      Map<String, Result> translations;
+      try {
+        translations = translator.translateClass(typeElt, lang);
+      } catch (Exception e) {
+        translations = new LinkedHashMap<>();
+        for (Element enclosed : typeElt.getEnclosedElements()) {
+          if (enclosed.getAnnotation(CodeTranslate.class) != null) {
+            translations.put(enclosed.getSimpleName().toString(), new Result.Failure(e));
+          }
+        }
+      }
+      translations.forEach((name, result) -> {
+        classResults.computeIfAbsent(name, k -> new LinkedHashMap<>()).put(lang, result);
+      });
+    }
+  }
+
+  private interface BatchHandler {
+    void handle(ExecutableElement methodElt, Lang lang, Result result);
+  }
+
+  /**
+   * A translation of a batch conversion.
+   */
+  public static class Translation {
+
+    private final String source;
+    private final String method;
+    private final Lang lang;
+    private final Result result;
+
+    Translation(String source, String method, Lang lang, Result result) {
+      this.source = source;
+      this.method = method;
+      this.lang = lang;
+      this.result = result;
+    }
+
+    /**
+     * @return the source path
+     */
+    public String getSource() {
+      return source;
+    }
+
+    /**
+     * @return the qualified name of the method, e.g {@code echo.Server.start} or null when the source could not be
+     * compiled
+     */
+    public String getMethod() {
+      return method;
+    }
+
+    public Lang getLang() {
+      return lang;
+    }
+
+    public Result getResult() {
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return source + " " + method + " (" + lang.getExtension() + "): " + result;
+    }
+  }
 }
@@ -0,0 +1,339 @@
+package io.vertx.codetrans;
+
+import io.vertx.codetrans.lang.groovy.GroovyLang;
+import io.vertx.codetrans.lang.js.JavaScriptLang;
+import io.vertx.codetrans.lang.kotlin.KotlinLang;
+import io.vertx.codetrans.lang.ruby.RubyLang;
+import io.vertx.codetrans.lang.scala.ScalaLang;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the steady state execution of a {@link io.vertx.codetrans.annotations.CodeTranslate} method in Java and
+ * in each translation: every execution is run {@code warmup} times, then measured {@code iterations} times. The
+ * harness compiles the source in a temporary directory and measures the Java original from this compilation,
+ * so the baseline never depends on the classes already present on the class path. The translations are loaded
+ * with {@link Lang#loadScript} and run with {@link Script#run(Map)}, the measure of a script compiling its
+ * source on each run includes the compilation, see {@link Script#isCompiledOnRun()}.<p/>
+ *
+ * The allocation is measured on the current thread with the HotSpot thread allocation counters, it is not
+ * available on other JVMs.
+ *
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class ExecutionHarness {
+
+  /**
+   * The default number of warm-up iterations = 1000
+   */
+  public static final int DEFAULT_WARMUP = 1000;
+
+  /**
+   * The default number of measured iterations = 1000
+   */
+  public static final int DEFAULT_ITERATIONS = 1000;
+
+  /**
+   * Measure a method of a class, e.g {@code ExecutionHarness control/ForLoop.java control.ForLoop start 1000 1000}.
+   */
+  public static void main(String[] args) throws Exception {
+    int warmup = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_WARMUP;
+    int iterations = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_ITERATIONS;
+    if (args.length < 3 || warmup < 0 || iterations < 1) {
+      System.out.println("Usage: ExecutionHarness <source> <fqn> <method> [warmup >= 0] [iterations > 0]");
+      System.exit(1);
+    }
+    List<Lang> langs = Arrays.asList(
+        new GroovyLang(),
+        new JavaScriptLang(),
+        new KotlinLang(),
+        new RubyLang(),
+        new ScalaLang());
+    ExecutionHarness harness = new ExecutionHarness(warmup, iterations);
+    for (Measure measure : harness.measure(Thread.currentThread().getContextClassLoader(), langs, args[0], args[1], args[2], Collections.emptyMap())) {
+      System.out.println(measure);
+    }
+  }
+
+  private final int warmup;
+  private final int iterations;
+
+  public ExecutionHarness() {
+    this(DEFAULT_WARMUP, DEFAULT_ITERATIONS);
+  }
+
+  /**
+   * @param warmup the number of warm-up iterations
+   * @param iterations the number of measured iterations
+   */
+  public ExecutionHarness(int warmup, int iterations) {
+    if (warmup < 0) {
+      throw new IllegalArgumentException("Warmup must be >= 0");
+    }
+    // The measures are divided by the iterations
+    if (iterations < 1) {
+      throw new IllegalArgumentException("Iterations must be > 0");
+    }
+    this.warmup = warmup;
+    this.iterations = iterations;
+  }
+
+  /**
+   * Measure the Java original and the translations of a method.
+   *
+   * @param loader the class loader resolving the source, the Java original and the script dependencies
+   * @param langs the languages to measure
+   * @param source the source path, e.g {@code control/ForLoop.java}
+   * @param fqn the class name
+   * @param method the method name
+   * @param globals the globals of the translations
+   * @return the measures, the Java original first, then the languages in order
+   */
+  public List<Measure> measure(ClassLoader loader, List<Lang> langs, String source, String fqn, String method, Map<String, Object> globals) throws Exception {
+    List<Measure> measures = new ArrayList<>();
+    measures.add(measureOriginal(loader, source, fqn, method));
+    Map<Lang, Result> results = ConvertingProcessor.convert(loader, langs, source, fqn, method);
+    for (Lang lang : langs) {
+      Result result = results.get(lang);
+      if (result instanceof Result.Source) {
+        Script script = lang.loadScript(loader, ((Result.Source) result).getValue());
+        measures.add(measure(loader, lang.getExtension(), script.isCompiledOnRun(), () -> script.run(globals)));
+      } else if (result instanceof Result.Failure) {
+        measures.add(new Measure(lang.getExtension(), ((Result.Failure) result).getCause()));
+      }
+    }
+    return measures;
+  }
+
+  private interface Execution {
+    void run() throws Exception;
+  }
+
+  /**
+   * Compile the source in a temporary directory and measure the method of the compiled class.
+   */
+  private Measure measureOriginal(ClassLoader loader, String source, String fqn, String method) {
+    Path dir = null;
+    try {
+      dir = Files.createTempDirectory("harness");
+      URL url = loader.getResource(source);
+      if (url == null) {
+        throw new Exception("Cannot resolve source " + source);
+      }
+      JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+      DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+      try (StandardJavaFileManager manager = javac.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+        Iterable<? extends JavaFileObject> fileObjects = url.getProtocol().equals("file") ?
+            manager.getJavaFileObjects(new File(url.toURI())) :
+            Collections.singletonList(SourceFileObject.load(source, url));
+        boolean compiled = javac.getTask(new StringWriter(), manager, diagnostics,
+            Arrays.asList("-proc:none", "-d", dir.toString()), null, fileObjects).call();
+        if (!compiled) {
+          throw new Exception("Compilation of " + source + " failed: " + diagnostics.getDiagnostics());
+        }
+      }
+      try (CompiledClassLoader compiled = new CompiledClassLoader(dir, loader)) {
+        Class<?> original = compiled.loadClass(fqn);
+        Method m = original.getMethod(method);
+        Object instance = original.newInstance();
+        return measure(loader, "java", false, () -> m.invoke(instance));
+      }
+    } catch (Exception e) {
+      return new Measure("java", e);
+    } finally {
+      if (dir != null) {
+        delete(dir.toFile());
+      }
+    }
+  }
+
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+  /**
+   * Loads the classes compiled by the harness before the classes of the parent, so a stale class of the
+   * class path does not shadow the compiled original.
+   */
+  private static class CompiledClassLoader extends URLClassLoader {
+
+    CompiledClassLoader(Path dir, ClassLoader parent) throws Exception {
+      super(new URL[]{dir.toUri().toURL()}, parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> clazz = findLoadedClass(name);
+        if (clazz == null && findResource(name.replace('.', '/') + ".class") != null) {
+          clazz = findClass(name);
+        }
+        if (clazz == null) {
+          return super.loadClass(name, resolve);
+        }
+        if (resolve) {
+          resolveClass(clazz);
+        }
+        return clazz;
+      }
+    }
+  }
+
+  private Measure measure(ClassLoader loader, String name, boolean compiledOnRun, Execution execution) {
+    Thread current = Thread.currentThread();
+    ClassLoader prev = current.getContextClassLoader();
+    current.setContextClassLoader(loader);
+    try {
+      for (int i = 0;i < warmup;i++) {
+        execution.run();
+      }
+      long min = Long.MAX_VALUE;
+      long total = 0;
+      long allocated = allocatedBytes();
+      for (int i = 0;i < iterations;i++) {
+        long now = System.nanoTime();
+        execution.run();
+        long time = System.nanoTime() - now;
+        total += time;
+        min = Math.min(min, time);
+      }
+      if (allocated != -1) {
+        allocated = (allocatedBytes() - allocated) / iterations;
+      }
+      return new Measure(name, iterations, total / iterations, min, allocated, compiledOnRun);
+    } catch (Exception e) {
+      return new Measure(name, e instanceof InvocationTargetException ? e.getCause() : e);
+    } finally {
+      current.setContextClassLoader(prev);
+    }
+  }
+
+  private static long allocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+      if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+        return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * The measure of an execution.
+   */
+  public static class Measure {
+
+    private final String name;
+    private final int iterations;
+    private final long meanTime;
+    private final long minTime;
+    private final long allocatedBytes;
+    private final boolean compiledOnRun;
+    private final Throwable failure;
+
+    Measure(String name, int iterations, long meanTime, long minTime, long allocatedBytes, boolean compiledOnRun) {
+      this.name = name;
+      this.iterations = iterations;
+      this.meanTime = meanTime;
+      this.minTime = minTime;
+      this.allocatedBytes = allocatedBytes;
+      this.compiledOnRun = compiledOnRun;
+      this.failure = null;
+    }
+
+    Measure(String name, Throwable failure) {
+      this.name = name;
+      this.iterations = 0;
+      this.meanTime = -1;
+      this.minTime = -1;
+      this.allocatedBytes = -1;
+      this.compiledOnRun = false;
+      this.failure = failure;
+    }
+
+    /**
+     * @return {@code java} for the original or the extension of the language
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return the number of measured iterations
+     */
+    public int getIterations() {
+      return iterations;
+    }
+
+    /**
+     * @return the mean time of an iteration in nanoseconds
+     */
+    public long getMeanTime() {
+      return meanTime;
+    }
+
+    /**
+     * @return the fastest iteration in nanoseconds
+     */
+    public long getMinTime() {
+      return minTime;
+    }
+
+    /**
+     * @return the bytes allocated by an iteration or -1 when it cannot be measured
+     */
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+
+    /**
+     * @return true when each iteration compiled the script, so the measure is not comparable with the others
+     */
+    public boolean isCompiledOnRun() {
+      return compiledOnRun;
+    }
+
+    /**
+     * @return the failure of the translation or of the execution, null when it succeeded
+     */
+    public Throwable getFailure() {
+      return failure;
+    }
+
+    @Override
+    public String toString() {
+      if (failure != null) {
+        return String.format("%-8s failed: %s", name, failure);
+      }
+      return String.format("%-8s mean %12d ns/op  min %12d ns/op  alloc %12d B/op%s", name, meanTime, minTime, allocatedBytes,
+          compiledOnRun ? "  (includes compilation)" : "");
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package io.vertx.codetrans;
 
+import com.sun.source.tree.Tree;
+
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
@@ -11,4 +13,15 @@ public interface Lang {
 
   CodeBuilder codeBuilder();
 
+  /**
+   * Declares whether the language can translate a kind of tree accepted by the {@link ModelBuilder}, it is
+   * used by the {@link SupportChecker}. The default implementation returns true.
+   *
+   * @param kind the tree kind
+   * @return true when the kind is supported
+   */
+  default boolean supports(Tree.Kind kind) {
+    return true;
+  }
+
 }
@@ -26,12 +26,15 @@ import com.sun.source.tree.StatementTree;
 import com.sun.source.tree.ThrowTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.TryTree;
+import com.sun.source.tree.TypeCastTree;
 import com.sun.source.tree.UnaryTree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.TreeScanner;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.tree.JCTree;
 import io.vertx.codegen.type.*;
 import io.vertx.codetrans.expression.ArraysModel;
@@ -73,6 +76,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -83,14 +88,32 @@ import java.util.stream.Collectors;
  */
 public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
 
+  /**
+   * A statement removed from the translation.
+   */
+  private static final StatementModel EMPTY = StatementModel.conditional(writer -> {});
+
   private final Trees trees;
   private final TreePath path;
   private final DeclaredType systemType;
   private final DeclaredType throwableType;
   private final Types typeUtils;
   private final TypeMirrorFactory factory;
+  private final boolean constantFolding;
+  private final boolean treeShaking;
+
+  /**
+   * The innermost tree that threw each failure, for the diagnostics.
+   */
+  private final Map<Throwable, Tree> failures = new WeakHashMap<>();
 
   public ModelBuilder(Trees trees, TreePath path, DeclaredType systemType, DeclaredType throwableType, TypeMirrorFactory factory, Types typeUtils, Lang lang) {
+    this(trees, path, systemType, throwableType, factory, typeUtils, lang, new TranslationOptions());
+  }
+
+  public ModelBuilder(Trees trees, TreePath path, DeclaredType systemType, DeclaredType throwableType, TypeMirrorFactory factory, Types typeUtils, Lang lang, TranslationOptions options) {
+    this.constantFolding = options.isConstantFolding();
+    this.treeShaking = options.isTreeShaking();
     this.path = path;
     this.trees = trees;
     this.systemType = systemType;
@@ -103,6 +126,28 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
     return scan(path, context);
   }
 
+  @Override
+  public CodeModel scan(Tree tree, VisitContext context) {
+    try {
+      TranslationBudget budget = TranslationBudget.current();
+      if (budget != null && tree != null) {
+        budget.visit();
+      }
+      return super.scan(tree, context);
+    } catch (RuntimeException e) {
+      failures.putIfAbsent(e, tree);
+      throw e;
+    }
+  }
+
+  /**
+   * @param failure a failure thrown by this builder
+   * @return the innermost tree whose translation threw the failure or null
+   */
+  public Tree failedTree(Throwable failure) {
+    return failures.get(failure);
+  }
+
   public StatementModel scan(StatementTree tree, VisitContext context) {
     return (StatementModel) scan((Tree) tree, context);
   }
@@ -125,10 +170,10 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
   @Override
   public CodeModel visitForLoop(ForLoopTree node, VisitContext context) {
     if (node.getInitializer().size() != 1) {
-      throw new UnsupportedOperationException();
+      throw new UnsupportedOperationException("Expecting a single for loop initializer");
     }
     if (node.getUpdate().size() != 1) {
-      throw new UnsupportedOperationException();
+      throw new UnsupportedOperationException("Expecting a single for loop update");
     }
     StatementModel body = scan(node.getStatement(), context);
     if (node.getInitializer().size() == 1 &&
@@ -148,7 +193,8 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
         if (id1.equals(id2) && id2.equals(id3)) {
           ExpressionModel from = scan(init.getInitializer(), context);
           ExpressionModel to = scan(lessThan.getRightOperand(), context);
-          return context.builder.sequenceForLoop(id1, from, to, body);
+          TypeInfo type = factory.create(((JCTree.JCVariableDecl) init).type);
+          return context.builder.sequenceForLoop(id1, type, from, to, hasClosure(node.getStatement()), body);
         }
       }
     }
@@ -162,7 +208,31 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
   public CodeModel visitEnhancedForLoop(EnhancedForLoopTree node, VisitContext context) {
     ExpressionModel expression = scan(node.getExpression(), context);
     StatementModel body = scan(node.getStatement(), context);
-    return context.builder.enhancedForLoop(node.getVariable().getName().toString(), expression, body);
+    TypeInfo variableType = factory.create(((JCTree.JCVariableDecl) node.getVariable()).type);
+    TypeMirror iterableType = ((JCTree) node.getExpression()).type;
+    TypeInfo expressionType = iterableType.getKind() == TypeKind.DECLARED || iterableType.getKind() == TypeKind.ARRAY ? factory.create(iterableType) : null;
+    return context.builder.enhancedForLoop(node.getVariable().getName().toString(), variableType, expression, expressionType, hasClosure(node.getStatement()), body);
+  }
+
+  /**
+   * @return true when the tree declares a closure (lambda or method reference) that may capture a variable
+   */
+  private static boolean hasClosure(Tree tree) {
+    Boolean closure = new TreeScanner<Boolean, Void>() {
+      @Override
+      public Boolean visitLambdaExpression(LambdaExpressionTree node, Void v) {
+        return true;
+      }
+      @Override
+      public Boolean visitMemberReference(MemberReferenceTree node, Void v) {
+        return true;
+      }
+      @Override
+      public Boolean reduce(Boolean r1, Boolean r2) {
+        return Boolean.TRUE.equals(r1) || Boolean.TRUE.equals(r2);
+      }
+    }.scan(tree, null);
+    return Boolean.TRUE.equals(closure);
   }
 
   @Override
@@ -201,10 +271,39 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
   public StatementModel visitIf(IfTree node, VisitContext context) {
     List<ConditionalBlockModel> conditionals = new ArrayList<>();
     StatementModel otherwise = build(conditionals, node, context);
+    if (conditionals.isEmpty()) {
+      // Every condition is constant false
+      return otherwise != null ? otherwise : EMPTY;
+    }
     return StatementModel.conditionals(conditionals, otherwise);
   }
 
   private StatementModel build(List<ConditionalBlockModel> conditionals, IfTree node, VisitContext context) {
+    Boolean constant = constantCondition(node.getCondition());
+    if (constant != null) {
+      if (constant) {
+        // The remaining branches are unreachable
+        StatementModel body = scan(node.getThenStatement(), context);
+        if (conditionals.isEmpty() && node.getThenStatement() instanceof BlockTree) {
+          // Keep a block to preserve the scope of its variables
+          conditionals.add(new ConditionalBlockModel(context.builder.render(writer -> writer.renderBooleanLiteral("true")), body));
+          return null;
+        }
+        return body;
+      } else {
+        StatementTree elseStatement = node.getElseStatement();
+        if (elseStatement instanceof IfTree) {
+          return build(conditionals, (IfTree) elseStatement, context);
+        } else if (elseStatement != null) {
+          if (conditionals.isEmpty() && elseStatement instanceof BlockTree) {
+            conditionals.add(new ConditionalBlockModel(context.builder.render(writer -> writer.renderBooleanLiteral("true")), scan(elseStatement, context)));
+            return null;
+          }
+          return scan(elseStatement, context);
+        }
+        return null;
+      }
+    }
     ExpressionModel condition = scan(node.getCondition(), context);
     StatementModel body = scan(node.getThenStatement(), context);
     conditionals.add(new ConditionalBlockModel(condition, body));
@@ -227,8 +326,22 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
     return classModel.onInstanceOf(type);
   }
 
+  @Override
+  public CodeModel visitTypeCast(TypeCastTree node, VisitContext context) {
+    // Casts are transparent in the dynamic languages
+    return scan(node.getExpression(), context);
+  }
+
   @Override
   public CodeModel visitConditionalExpression(ConditionalExpressionTree node, VisitContext context) {
+    ExpressionModel folded = fold(node, context);
+    if (folded != null) {
+      return folded;
+    }
+    Boolean constant = constantCondition(node.getCondition());
+    if (constant != null) {
+      return scan(constant ? node.getTrueExpression() : node.getFalseExpression(), context);
+    }
     ExpressionModel condition = scan(node.getCondition(), context);
     ExpressionModel trueExpression = scan(node.getTrueExpression(), context);
     ExpressionModel falseExpression = scan(node.getFalseExpression(), context);
@@ -237,6 +350,10 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
 
   @Override
   public ExpressionModel visitUnary(UnaryTree node, VisitContext p) {
+    ExpressionModel folded = fold(node, p);
+    if (folded != null) {
+      return folded;
+    }
     ExpressionModel expression = scan(node.getExpression(), p);
     switch (node.getKind()) {
       case POSTFIX_INCREMENT:
@@ -270,6 +387,10 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
 
   @Override
   public ExpressionModel visitBinary(BinaryTree node, VisitContext context) {
+    ExpressionModel folded = fold(node, context);
+    if (folded != null) {
+      return folded;
+    }
     ExpressionModel left = scan(node.getLeftOperand(), context);
     ExpressionModel right = scan(node.getRightOperand(), context);
     String op;
@@ -328,6 +449,77 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
     return context.builder.combine(left, op, right);
   }
 
+  /**
+   * @return the value of a compile time constant condition when tree shaking is enabled, null otherwise
+   */
+  private Boolean constantCondition(ExpressionTree condition) {
+    if (treeShaking) {
+      Type type = ((JCTree) condition).type;
+      Object value = type != null ? type.constValue() : null;
+      if (value instanceof Number) {
+        return ((Number) value).intValue() != 0;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Fold a compile time constant expression into a literal when constant folding is enabled. The operands
+   * are not scanned, so the constant fields it uses are not referenced anymore.
+   *
+   * @return the literal or null when the expression is not folded
+   */
+  private ExpressionModel fold(ExpressionTree node, VisitContext context) {
+    if (!constantFolding) {
+      return null;
+    }
+    Type type = ((JCTree) node).type;
+    Object value = type != null ? type.constValue() : null;
+    if (value == null) {
+      return null;
+    }
+    switch (type.getKind()) {
+      case BOOLEAN:
+        // javac represents boolean constants as integers
+        return context.builder.render(writer -> {
+          writer.renderBooleanLiteral(((Number) value).intValue() != 0 ? "true" : "false");
+        });
+      case CHAR:
+        return context.builder.render(writer -> {
+          writer.renderCharLiteral((char) ((Number) value).intValue());
+        });
+      case BYTE:
+      case SHORT:
+      case INT:
+        return context.builder.render(writer -> {
+          writer.renderIntegerLiteral(value.toString());
+        });
+      case LONG:
+        return context.builder.render(writer -> {
+          writer.renderLongLiteral(value.toString());
+        });
+      case FLOAT:
+        if (Float.isNaN((Float) value) || Float.isInfinite((Float) value)) {
+          return null;
+        }
+        return context.builder.render(writer -> {
+          writer.renderFloatLiteral(value.toString());
+        });
+      case DOUBLE:
+        if (Double.isNaN((Double) value) || Double.isInfinite((Double) value)) {
+          return null;
+        }
+        return context.builder.render(writer -> {
+          writer.renderDoubleLiteral(value.toString());
+        });
+      default:
+        if (value instanceof String) {
+          return new StringLiteralModel(context.builder, (String) value);
+        }
+        return null;
+    }
+  }
+
   @Override
   public ExpressionModel visitLiteral(LiteralTree node, VisitContext context) {
     switch (node.getKind()) {
@@ -413,7 +605,7 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
         TypeInfo type = factory.create(ident.type);
         VariableScope scope;
         scope = resolvescope(context, kind, name);
-        return context.builder.identifier(name, scope).as(type);
+        return context.builder.identifier(name, scope, type);
       }
     }
   }
@@ -467,6 +659,10 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
 
   @Override
   public CodeModel visitParenthesized(ParenthesizedTree node, VisitContext context) {
+    ExpressionModel folded = fold(node, context);
+    if (folded != null) {
+      return folded;
+    }
     ExpressionModel expression = scan(node.getExpression(), context);
     return new ParenthesizedModel(context.builder, expression);
   }
@@ -626,7 +822,9 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
           for (int i = 0; i < models.size(); i++) {
             StatementModel model = models.get(i);
             writer.renderFragment(fragments.get(i));
-            writer.renderStatement(model);
+            if (model != EMPTY) {
+              writer.renderStatement(model);
+            }
           }
           writer.renderFragment(fragments.getLast());
         }
@@ -675,7 +873,7 @@ public class ModelBuilder extends TreePathScanner<CodeModel, VisitContext> {
                       } else if (method.name.equals("failed") && method.parameterTypes.isEmpty()) {
                         failedBody = scan(ifTree.getThenStatement(), context);
                         if (ifTree.getElseStatement() != null) {
-                          succeededBody = scan(ifTree.getThenStatement(), context);
+                          succeededBody = scan(ifTree.getElseStatement(), context);
                         }
                       }
                     }
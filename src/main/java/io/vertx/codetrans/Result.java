@@ -21,11 +21,26 @@ public abstract class Result {
 
   public static class Failure extends Result {
     private final Throwable cause;
+    private final TranslationDiagnostic diagnostic;
     public Failure(Throwable cause) {
+      this(cause, null);
+    }
+    public Failure(Throwable cause, TranslationDiagnostic diagnostic) {
       this.cause = cause;
+      this.diagnostic = diagnostic;
     }
     public Throwable getCause() {
       return cause;
     }
+    /**
+     * @return the diagnostic of the failure or null when it is unknown
+     */
+    public TranslationDiagnostic getDiagnostic() {
+      return diagnostic;
+    }
+    @Override
+    public String toString() {
+      return "Failure[" + (diagnostic != null ? diagnostic : cause) + "]";
+    }
   }
 }
@@ -2,7 +2,11 @@ package io.vertx.codetrans;
 
 import io.vertx.codetrans.statement.StatementModel;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -12,11 +16,17 @@ public class RunnableCompilationUnit {
   private final MethodModel main;
   private final Map<String, MethodModel> methods;
   private final Map<String, StatementModel> fields;
+  private final boolean parallelRendering;
 
   public RunnableCompilationUnit(MethodModel main, Map<String, MethodModel> methods, Map<String, StatementModel> fields) {
+    this(main, methods, fields, false);
+  }
+
+  public RunnableCompilationUnit(MethodModel main, Map<String, MethodModel> methods, Map<String, StatementModel> fields, boolean parallelRendering) {
     this.main = main;
     this.methods = methods;
     this.fields = fields;
+    this.parallelRendering = parallelRendering;
   }
 
   public MethodModel getMain() {
@@ -30,4 +40,45 @@ public class RunnableCompilationUnit {
   public Map<String, StatementModel> getFields() {
     return fields;
   }
+
+  public boolean isParallelRendering() {
+    return parallelRendering;
+  }
+
+  /**
+   * Render the fields of this unit with the {@code renderer}, see {@link #renderMethods}.
+   *
+   * @param writer the writer
+   * @param renderer the field renderer
+   */
+  public void renderFields(CodeWriter writer, BiConsumer<CodeWriter, Map.Entry<String, StatementModel>> renderer) {
+    render(writer, fields.entrySet(), renderer);
+  }
+
+  /**
+   * Render the methods of this unit with the {@code renderer}. When the unit is rendered in parallel, each method
+   * is rendered concurrently with a new writer of the same builder and the buffers are appended to the
+   * {@code writer} in order, otherwise the methods are rendered sequentially with the {@code writer}.
+   *
+   * @param writer the writer
+   * @param renderer the method renderer
+   */
+  public void renderMethods(CodeWriter writer, BiConsumer<CodeWriter, Map.Entry<String, MethodModel>> renderer) {
+    render(writer, methods.entrySet(), renderer);
+  }
+
+  private <M> void render(CodeWriter writer, Collection<M> members, BiConsumer<CodeWriter, M> renderer) {
+    if (parallelRendering && members.size() > 1) {
+      // The rendering threads use the budget of the translation
+      TranslationBudget budget = TranslationBudget.current();
+      List<String> buffers = members.parallelStream().map(member -> TranslationBudget.run(budget, () -> {
+        CodeWriter memberWriter = writer.getBuilder().newWriter();
+        renderer.accept(memberWriter, member);
+        return memberWriter.getBuffer().toString();
+      })).collect(Collectors.toList());
+      buffers.forEach(writer::append);
+    } else {
+      members.forEach(member -> renderer.accept(writer, member));
+    }
+  }
 }
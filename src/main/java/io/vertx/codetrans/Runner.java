@@ -20,29 +20,73 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetClientOptions;
+import io.vertx.core.net.NetSocket;
 
 import java.io.BufferedReader;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
+ * Runs the examples interactively, or headless with {@code --benchmark}: each benchmarked example is deployed
+ * in every language of the {@code langs} system property (defaults to {@code lang}), a local load generator
+ * drives it for {@code duration} seconds with {@code concurrency} concurrent requests and a JSON report of the
+ * deploy time, throughput and latency percentiles is written to the {@code report} file or to the standard output.
+ * A connection, a request or a deployment taking more than {@code timeout} milliseconds fails, the runner exits
+ * with a non-zero status when an example could not be deployed or measured.
+ *
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
 public class Runner {
 
   private static final String LANG = System.getProperty("lang", "groovy");
+  private static final String[] LANGS = System.getProperty("langs", LANG).split(",");
+  private static final long DURATION = Long.getLong("duration", 10) * 1000;
+  private static final int CONCURRENCY = Integer.getInteger("concurrency", 16);
+  private static final int TIMEOUT = Integer.getInteger("timeout", 5000);
+  private static final String REPORT = System.getProperty("report");
+
+  private static final List<BenchmarkCase> BENCHMARKS = Arrays.asList(
+      new BenchmarkCase("echo", Runner::netLoad, "echo/EchoServer"),
+      new BenchmarkCase("eventbus_pointtopoint", Runner::eventBusLoad, "eventbus_pointtopoint/Receiver"),
+      new BenchmarkCase("http", Runner::httpLoad, "http/Server")
+  );
+
   private static Vertx vertx = Vertx.vertx();
   private static BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
 
   public static void main(String[] args) throws Exception {
+    if (args.length > 0 && "--benchmark".equals(args[0])) {
+      boolean ok = benchmark();
+      vertx.close();
+      System.exit(ok ? 0 : 1);
+    }
     ArrayList<Method> examples = new ArrayList<>();
     for (Method m : Runner.class.getDeclaredMethods()) {
       int mods = m.getModifiers();
@@ -95,80 +139,117 @@ public class Runner {
   }
 
   public static void echo() {
-    deployInLang("echo/EchoServer", "echo/EchoClient");
+    deployInLang(new DeploymentPlan().
+        add("echo/EchoServer").
+        add("echo/EchoClient", "echo/EchoServer"));
   }
 
   public static void eventbus_pointtopoint() {
-    deployInLang("eventbus_pointtopoint/Receiver", "eventbus_pointtopoint/Sender");
+    deployInLang(new DeploymentPlan().
+        add("eventbus_pointtopoint/Receiver").
+        add("eventbus_pointtopoint/Sender", "eventbus_pointtopoint/Receiver"));
   }
 
   public static void eventbus_pubsub() {
-    deployInLang("eventbus_pubsub/Receiver", "eventbus_pubsub/Sender");
+    deployInLang(new DeploymentPlan().
+        add("eventbus_pubsub/Receiver").
+        add("eventbus_pubsub/Sender", "eventbus_pubsub/Receiver"));
   }
 
   public static void eventbusbridge() {
-    deployInLang("eventbusbridge/BridgeServer");
+    deployInLang(new DeploymentPlan().add("eventbusbridge/BridgeServer"));
   }
 
   public static void fanout() {
-    deployInLang("fanout/FanoutServer");
+    deployInLang(new DeploymentPlan().add("fanout/FanoutServer"));
   }
 
   public static void http() {
-    deployInLang("http/Server", "http/Client");
+    deployInLang(new DeploymentPlan().
+        add("http/Server").
+        add("http/Client", "http/Server"));
   }
 
   public static void https() {
-    deployInLang("https/Server", "https/Client");
+    deployInLang(new DeploymentPlan().
+        add("https/Server").
+        add("https/Client", "https/Server"));
   }
 
   public static void proxy() {
-    deployInLang("proxy/Server", "proxy/Proxy", "proxy/Client");
+    deployInLang(new DeploymentPlan().
+        add("proxy/Server").
+        add("proxy/Proxy", "proxy/Server").
+        add("proxy/Client", "proxy/Proxy"));
   }
 
   public static void route_matcher() {
-    deployInLang("route_match/RouteMatchServer");
+    deployInLang(new DeploymentPlan().add("route_match/RouteMatchServer"));
   }
 
   public static void sendfile() {
-    deployInLang("sendfile/SendFile");
+    deployInLang(new DeploymentPlan().add("sendfile/SendFile"));
   }
 
   public static void simpleform() {
-    deployInLang("simpleform/SimpleFormServer");
+    deployInLang(new DeploymentPlan().add("simpleform/SimpleFormServer"));
   }
 
   public static void simpleformupload() {
-    deployInLang("simpleformupload/SimpleFormUploadServer");
+    deployInLang(new DeploymentPlan().add("simpleformupload/SimpleFormUploadServer"));
   }
 
   public static void sockjs() {
-    deployInLang("sockjs/SockJSExample");
+    deployInLang(new DeploymentPlan().add("sockjs/SockJSExample"));
   }
 
   public static void ssl() {
-    deployInLang("ssl/Server", "ssl/Client");
+    deployInLang(new DeploymentPlan().
+        add("ssl/Server").
+        add("ssl/Client", "ssl/Server"));
   }
 
   public static void upload() {
-    deployInLang("upload/Server", "upload/Client");
+    deployInLang(new DeploymentPlan().
+        add("upload/Server").
+        add("upload/Client", "upload/Server"));
   }
 
   public static void websockets() {
-    deployInLang("websockets/WebSocketsServer", "websockets/WebSocketsClient");
+    deployInLang(new DeploymentPlan().
+        add("websockets/WebSocketsServer").
+        add("websockets/WebSocketsClient", "websockets/WebSocketsServer"));
   }
 
-  private static void deployInLang(String... verticles) {
-    verticles = verticles.clone();
+  private static void deployInLang(DeploymentPlan plan) {
+    deploy(plan.map(verticle -> LANG + ':' + verticle + '.' + LANG));
+  }
+
+  /**
+   * Deploy the provided verticles sequentially, each verticle depends on the previous one.
+   *
+   * @param verticles the verticles to deploy
+   */
+  public static void deploy(String... verticles) {
+    DeploymentPlan plan = new DeploymentPlan();
     for (int i = 0;i < verticles.length;i++) {
-      verticles[i] = LANG + ':' + verticles[i] + '.' + LANG;
+      if (i == 0) {
+        plan.add(verticles[i]);
+      } else {
+        plan.add(verticles[i], verticles[i - 1]);
+      }
     }
-    deploy(verticles);
+    deploy(plan);
   }
 
-  public static void deploy(String... verticles) {
+  /**
+   * Deploy the verticles of the plan, wait for a key and undeploy them.
+   *
+   * @param plan the deployment plan
+   */
+  public static void deploy(DeploymentPlan plan) {
     BlockingQueue<AsyncResult<String[]>> queue = new ArrayBlockingQueue<>(1);
-    deploy(Arrays.asList(verticles), new String[0], queue::add);
+    deploy(plan, queue::add);
     AsyncResult<String[]> result;
     try {
       result = queue.take();
@@ -199,40 +280,387 @@ public class Runner {
   }
 
   /**
-   * Deploy the provided verticles sequentially.
-   *
-   * @param verticles the verticles to deploy
-   * @param previousDepl the previous deployments
-   * @param resultHandler the result handler
+   * The verticles to deploy and their dependencies: a verticle is deployed once all the verticles it depends on
+   * are deployed, independent verticles are deployed concurrently.
    */
-  private static void deploy(List<String> verticles, String[] previousDepl, Handler<AsyncResult<String[]>> resultHandler) {
-    if (verticles.size() > 0) {
-      String verticle = verticles.get(0);
-      vertx.deployVerticle(verticle, result -> {
-        if (result.succeeded()) {
-          System.out.println("Deployed: " + verticle + " as " + result.result());
-          String[] nextDepl = Arrays.copyOf(previousDepl, previousDepl.length + 1);
-          nextDepl[previousDepl.length] = result.result();
-          deploy(verticles.subList(1, verticles.size()), nextDepl, resultHandler);
-        } else {
-          undeploy(previousDepl, done -> {
-            resultHandler.handle(Future.failedFuture(result.cause()));
-          });
+  public static class DeploymentPlan {
+
+    private final Map<String, List<String>> dependencies = new LinkedHashMap<>();
+
+    /**
+     * Add a verticle to the plan.
+     *
+     * @param verticle the verticle name
+     * @param dependsOn the verticles that must be deployed before, they must be added before
+     * @return a reference to this, so the API can be used fluently
+     */
+    public DeploymentPlan add(String verticle, String... dependsOn) {
+      for (String dependency : dependsOn) {
+        if (!dependencies.containsKey(dependency)) {
+          throw new IllegalArgumentException("Verticle " + verticle + " depends on unknown verticle " + dependency);
         }
+      }
+      if (dependencies.put(verticle, Arrays.asList(dependsOn)) != null) {
+        throw new IllegalArgumentException("Duplicate verticle " + verticle);
+      }
+      return this;
+    }
+
+    /**
+     * @return a copy of this plan with the verticle names mapped by {@code mapper}
+     */
+    public DeploymentPlan map(Function<String, String> mapper) {
+      DeploymentPlan plan = new DeploymentPlan();
+      dependencies.forEach((verticle, dependsOn) -> {
+        plan.add(mapper.apply(verticle), dependsOn.stream().map(mapper).toArray(String[]::new));
       });
-    } else {
-      resultHandler.handle(Future.succeededFuture(previousDepl));
+      return plan;
     }
   }
 
+  /**
+   * Deploy the verticles of a plan, each verticle is deployed as soon as its dependencies are deployed. When a
+   * deployment fails, the verticles already deployed are undeployed once the pending deployments are done.
+   *
+   * @param plan the plan
+   * @param resultHandler the result handler called with the deployment ids in completion order
+   */
+  private static void deploy(DeploymentPlan plan, Handler<AsyncResult<String[]>> resultHandler) {
+    Map<String, List<String>> waiting = new LinkedHashMap<>(plan.dependencies);
+    Set<String> completed = new HashSet<>();
+    List<String> deploymentIds = new ArrayList<>();
+    Throwable[] failure = new Throwable[1];
+    int[] pending = new int[1];
+    boolean[] finished = new boolean[1];
+    Object lock = new Object();
+    Runnable[] next = new Runnable[1];
+    next[0] = () -> {
+      List<String> ready = new ArrayList<>();
+      String[] done = null;
+      Throwable cause;
+      synchronized (lock) {
+        if (failure[0] == null) {
+          for (Iterator<Map.Entry<String, List<String>>> it = waiting.entrySet().iterator();it.hasNext();) {
+            Map.Entry<String, List<String>> entry = it.next();
+            if (completed.containsAll(entry.getValue())) {
+              it.remove();
+              ready.add(entry.getKey());
+            }
+          }
+        }
+        pending[0] += ready.size();
+        if (pending[0] == 0) {
+          if (finished[0]) {
+            // Another callback already completed the plan
+            return;
+          }
+          finished[0] = true;
+          done = deploymentIds.toArray(new String[deploymentIds.size()]);
+        }
+        cause = failure[0];
+      }
+      if (done != null) {
+        if (cause == null) {
+          resultHandler.handle(Future.succeededFuture(done));
+        } else {
+          undeploy(done, v -> resultHandler.handle(Future.failedFuture(cause)));
+        }
+        return;
+      }
+      for (String verticle : ready) {
+        vertx.deployVerticle(verticle, result -> {
+          synchronized (lock) {
+            pending[0]--;
+            if (result.succeeded()) {
+              System.out.println("Deployed: " + verticle + " as " + result.result());
+              deploymentIds.add(result.result());
+              completed.add(verticle);
+            } else if (failure[0] == null) {
+              failure[0] = result.cause();
+            }
+          }
+          next[0].run();
+        });
+      }
+    };
+    next[0].run();
+  }
+
+  /**
+   * Undeploy the deployments concurrently.
+   */
   private static void undeploy(String[] deployments, Handler<Void> doneHandler) {
     if (deployments.length == 0) {
       doneHandler.handle(null);
     } else {
-      String[] next = Arrays.copyOf(deployments, deployments.length - 1);
-      vertx.undeploy(deployments[deployments.length - 1], result -> {
-        undeploy(next, doneHandler);
+      Handler<Void> undeployed = countDown(deployments.length, () -> doneHandler.handle(null));
+      for (String deployment : deployments) {
+        vertx.undeploy(deployment, result -> undeployed.handle(null));
+      }
+    }
+  }
+
+  /**
+   * Benchmark the examples in each language.
+   *
+   * @return true when all the examples were deployed and measured
+   */
+  private static boolean benchmark() throws Exception {
+    boolean ok = true;
+    JsonArray results = new JsonArray();
+    for (BenchmarkCase benchmark : BENCHMARKS) {
+      for (String lang : LANGS) {
+        JsonObject result = new JsonObject().put("example", benchmark.name).put("lang", lang);
+        try {
+          measure(benchmark, lang, result);
+        } catch (Exception e) {
+          ok = false;
+          result.put("failure", String.valueOf(e.getMessage()));
+        }
+        results.add(result);
+      }
+    }
+    JsonObject report = new JsonObject().
+        put("duration", DURATION).
+        put("concurrency", CONCURRENCY).
+        put("results", results);
+    if (REPORT != null) {
+      try (OutputStream out = new FileOutputStream(REPORT)) {
+        out.write(report.encodePrettily().getBytes(StandardCharsets.UTF_8));
+      }
+    } else {
+      System.out.println(report.encodePrettily());
+    }
+    return ok;
+  }
+
+  private static void measure(BenchmarkCase benchmark, String lang, JsonObject result) throws Exception {
+    String[] verticles = new String[benchmark.verticles.length];
+    for (int i = 0;i < verticles.length;i++) {
+      verticles[i] = lang + ':' + benchmark.verticles[i] + '.' + lang;
+    }
+    BlockingQueue<AsyncResult<String[]>> deployed = new ArrayBlockingQueue<>(1);
+    long now = System.nanoTime();
+    DeploymentPlan plan = new DeploymentPlan();
+    for (String verticle : verticles) {
+      plan.add(verticle);
+    }
+    deploy(plan, deployed::add);
+    AsyncResult<String[]> deployment = deployed.poll(TIMEOUT * verticles.length, TimeUnit.MILLISECONDS);
+    if (deployment == null) {
+      throw new Exception("Could not deploy " + benchmark.name + " in " + lang + " within " + TIMEOUT * verticles.length + " ms");
+    }
+    if (deployment.failed()) {
+      throw new Exception("Could not deploy " + benchmark.name + " in " + lang + ": " + deployment.cause().getMessage());
+    }
+    result.put("deployTime", (System.nanoTime() - now) / 1000000);
+    try {
+      Samples samples = new Samples();
+      CountDownLatch done = new CountDownLatch(1);
+      long start = System.currentTimeMillis();
+      benchmark.load.run(start + DURATION, samples, v -> done.countDown());
+      // A pending request fails after the timeout, so the load is done by then
+      if (!done.await(DURATION + 2 * TIMEOUT, TimeUnit.MILLISECONDS)) {
+        throw new Exception("Load of " + benchmark.name + " in " + lang + " did not complete");
+      }
+      samples.report(System.currentTimeMillis() - start, result);
+    } finally {
+      CountDownLatch undeployed = new CountDownLatch(1);
+      undeploy(deployment.result(), v -> undeployed.countDown());
+      if (!undeployed.await(TIMEOUT, TimeUnit.MILLISECONDS)) {
+        System.err.println("Could not undeploy " + benchmark.name + " in " + lang + " within " + TIMEOUT + " ms");
+      }
+    }
+  }
+
+  /**
+   * Run {@link #CONCURRENCY} request loops against the example until the deadline, then call the done handler.
+   */
+  private interface LoadGenerator {
+    void run(long deadline, Samples samples, Handler<Void> doneHandler);
+  }
+
+  private static class BenchmarkCase {
+
+    final String name;
+    final LoadGenerator load;
+    final String[] verticles;
+
+    BenchmarkCase(String name, LoadGenerator load, String... verticles) {
+      this.name = name;
+      this.load = load;
+      this.verticles = verticles;
+    }
+  }
+
+  private static Handler<Void> countDown(int count, Runnable done) {
+    AtomicInteger pending = new AtomicInteger(count);
+    return v -> {
+      if (pending.decrementAndGet() == 0) {
+        done.run();
+      }
+    };
+  }
+
+  private static void httpLoad(long deadline, Samples samples, Handler<Void> doneHandler) {
+    HttpClient client = vertx.createHttpClient(new HttpClientOptions().setMaxPoolSize(CONCURRENCY).setConnectTimeout(TIMEOUT));
+    Handler<Void> loopDone = countDown(CONCURRENCY, () -> {
+      client.close();
+      doneHandler.handle(null);
+    });
+    for (int i = 0;i < CONCURRENCY;i++) {
+      httpRequest(client, deadline, samples, loopDone);
+    }
+  }
+
+  private static void httpRequest(HttpClient client, long deadline, Samples samples, Handler<Void> doneHandler) {
+    if (System.currentTimeMillis() >= deadline) {
+      doneHandler.handle(null);
+      return;
+    }
+    long start = System.nanoTime();
+    client.get(8080, "localhost", "/", resp -> {
+      resp.bodyHandler(body -> {
+        if (resp.statusCode() == 200) {
+          samples.add(System.nanoTime() - start);
+        } else {
+          samples.error();
+        }
+        httpRequest(client, deadline, samples, doneHandler);
+      });
+    }).exceptionHandler(err -> {
+      samples.error();
+      vertx.setTimer(10, id -> httpRequest(client, deadline, samples, doneHandler));
+    }).setTimeout(TIMEOUT).end();
+  }
+
+  private static void eventBusLoad(long deadline, Samples samples, Handler<Void> doneHandler) {
+    Handler<Void> loopDone = countDown(CONCURRENCY, () -> doneHandler.handle(null));
+    for (int i = 0;i < CONCURRENCY;i++) {
+      eventBusRequest(deadline, samples, loopDone);
+    }
+  }
+
+  private static void eventBusRequest(long deadline, Samples samples, Handler<Void> doneHandler) {
+    if (System.currentTimeMillis() >= deadline) {
+      doneHandler.handle(null);
+      return;
+    }
+    long start = System.nanoTime();
+    vertx.eventBus().send("ping-address", "ping!", new DeliveryOptions().setSendTimeout(TIMEOUT), reply -> {
+      if (reply.succeeded()) {
+        samples.add(System.nanoTime() - start);
+      } else {
+        samples.error();
+      }
+      eventBusRequest(deadline, samples, doneHandler);
+    });
+  }
+
+  private static void netLoad(long deadline, Samples samples, Handler<Void> doneHandler) {
+    NetClient client = vertx.createNetClient(new NetClientOptions().setConnectTimeout(TIMEOUT));
+    Handler<Void> loopDone = countDown(CONCURRENCY, () -> {
+      client.close();
+      doneHandler.handle(null);
+    });
+    Buffer ping = Buffer.buffer("ping!\n");
+    for (int i = 0;i < CONCURRENCY;i++) {
+      client.connect(1234, "localhost", ar -> {
+        if (ar.failed()) {
+          samples.error();
+          loopDone.handle(null);
+          return;
+        }
+        NetSocket socket = ar.result();
+        long[] start = { 0 };
+        long[] timer = { -1 };
+        int[] received = { 0 };
+        boolean[] finished = { false };
+        // The socket callbacks run on the same event loop
+        Runnable finish = () -> {
+          if (!finished[0]) {
+            finished[0] = true;
+            vertx.cancelTimer(timer[0]);
+            socket.close();
+            loopDone.handle(null);
+          }
+        };
+        Runnable send = () -> {
+          start[0] = System.nanoTime();
+          timer[0] = vertx.setTimer(TIMEOUT, id -> {
+            samples.error();
+            finish.run();
+          });
+          socket.write(ping);
+        };
+        socket.handler(buff -> {
+          received[0] += buff.length();
+          if (received[0] >= ping.length()) {
+            received[0] -= ping.length();
+            vertx.cancelTimer(timer[0]);
+            samples.add(System.nanoTime() - start[0]);
+            if (System.currentTimeMillis() >= deadline) {
+              finish.run();
+            } else {
+              send.run();
+            }
+          }
+        });
+        socket.exceptionHandler(err -> {
+          samples.error();
+          finish.run();
+        });
+        socket.closeHandler(v -> {
+          if (!finished[0]) {
+            samples.error();
+            finish.run();
+          }
+        });
+        send.run();
       });
     }
   }
+
+  /**
+   * The latencies measured by a load generator, in nanoseconds.
+   */
+  private static class Samples {
+
+    private long[] values = new long[1024];
+    private int size;
+    private int errors;
+
+    synchronized void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    synchronized void error() {
+      errors++;
+    }
+
+    synchronized void report(long elapsed, JsonObject result) {
+      long[] sorted = Arrays.copyOf(values, size);
+      Arrays.sort(sorted);
+      result.put("requests", size);
+      result.put("errors", errors);
+      result.put("throughput", elapsed > 0 ? size * 1000D / elapsed : 0D);
+      result.put("latency", new JsonObject().
+          put("unit", "us").
+          put("p50", percentile(sorted, 50)).
+          put("p90", percentile(sorted, 90)).
+          put("p99", percentile(sorted, 99)).
+          put("max", sorted.length > 0 ? sorted[sorted.length - 1] / 1000 : 0));
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(percentile / 100D * sorted.length) - 1;
+      return sorted[Math.max(0, index)] / 1000;
+    }
+  }
 }
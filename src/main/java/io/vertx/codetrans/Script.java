@@ -4,15 +4,36 @@ import java.util.Collections;
 import java.util.Map;
 
 /**
+ * A translated script loaded by a {@link Lang}.<p/>
+ *
+ * A script is thread safe: {@link #run(Map)} can be invoked concurrently from several threads. For the languages
+ * binding the globals (Groovy, JavaScript and Ruby) each execution sees only the globals it was given, including
+ * the callbacks it registers when they run after the execution returns, the Kotlin and Scala scripts ignore them.
+ * JavaScript and Ruby run the executions with a {@link ScriptPool}, so the number of concurrent executions of
+ * a script is bounded, Ruby has a pool per set of globals.
+ *
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
 public interface Script{
 
   String getSource();
 
+  /**
+   * @return true when each {@link #run(Map)} compiles the source before executing it, false when the source is
+   * compiled or parsed once by {@link Lang#loadScript}
+   */
+  default boolean isCompiledOnRun() {
+    return false;
+  }
+
   default void run() throws Exception {
     run(Collections.emptyMap());
   }
 
+  /**
+   * Run the script, this method can be called concurrently.
+   *
+   * @param globals the globals of this execution
+   */
   void run(Map<String, Object> globals) throws Exception;
 }
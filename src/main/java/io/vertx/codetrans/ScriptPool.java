@@ -0,0 +1,101 @@
+package io.vertx.codetrans;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of the language runtimes executing a {@link Script}, a runtime executes one script at a time.<p/>
+ *
+ * The runtimes are created on demand up to the maximum size of the pool, then an execution waits until a runtime
+ * is released by another execution.
+ *
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class ScriptPool<T> {
+
+  /**
+   * The default maximum size of a pool = the number of available processors
+   */
+  public static final int DEFAULT_MAX_SIZE = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Creates a runtime of the pool.
+   */
+  @FunctionalInterface
+  public interface Factory<T> {
+    T create() throws Exception;
+  }
+
+  /**
+   * Executes a script with a runtime of the pool.
+   */
+  @FunctionalInterface
+  public interface Task<T> {
+    void execute(T runtime) throws Exception;
+  }
+
+  private final Factory<T> factory;
+  private final int maxSize;
+  private final BlockingQueue<T> idle;
+  private final AtomicInteger size = new AtomicInteger();
+
+  /**
+   * Create a pool with a first runtime.
+   *
+   * @param factory the runtime factory
+   * @param maxSize the maximum number of runtimes
+   */
+  public ScriptPool(Factory<T> factory, int maxSize) throws Exception {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Invalid max size " + maxSize);
+    }
+    this.factory = factory;
+    this.maxSize = maxSize;
+    this.idle = new ArrayBlockingQueue<>(maxSize);
+    size.incrementAndGet();
+    idle.add(factory.create());
+  }
+
+  /**
+   * @return the number of runtimes created by the pool
+   */
+  public int size() {
+    return size.get();
+  }
+
+  /**
+   * Execute a task with a runtime of the pool, the runtime is released when the task returns.
+   *
+   * @param task the task
+   */
+  public void execute(Task<T> task) throws Exception {
+    T runtime = acquire();
+    try {
+      task.execute(runtime);
+    } finally {
+      idle.add(runtime);
+    }
+  }
+
+  private T acquire() throws Exception {
+    T runtime = idle.poll();
+    if (runtime != null) {
+      return runtime;
+    }
+    while (true) {
+      int current = size.get();
+      if (current >= maxSize) {
+        return idle.take();
+      }
+      if (size.compareAndSet(current, current + 1)) {
+        try {
+          return factory.create();
+        } catch (Exception e) {
+          size.decrementAndGet();
+          throw e;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package io.vertx.codetrans;
+
+import javax.tools.SimpleJavaFileObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A Java source held in memory, allowing to convert sources without going through the file system.
+ *
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class SourceFileObject extends SimpleJavaFileObject {
+
+  /**
+   * Load in memory a source that cannot be accessed as a file, e.g a source packaged in a jar.
+   *
+   * @param path the source path, e.g {@code examples/Example.java}
+   * @param url the url to load the source from
+   * @return the loaded source
+   */
+  public static SourceFileObject load(String path, URL url) throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (InputStream in = url.openStream()) {
+      byte[] tmp = new byte[256];
+      while (true) {
+        int len = in.read(tmp);
+        if (len == -1) {
+          break;
+        }
+        buffer.write(tmp, 0, len);
+      }
+    }
+    return new SourceFileObject(URI.create("string:///" + path), new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  private final CharSequence content;
+
+  /**
+   * Create a source declaring the top level class {@code fqn}.
+   *
+   * @param fqn the qualified name of the top level class of the source
+   * @param content the source content
+   */
+  public SourceFileObject(String fqn, CharSequence content) {
+    this(URI.create("string:///" + fqn.replace('.', '/') + Kind.SOURCE.extension), content);
+  }
+
+  public SourceFileObject(URI uri, CharSequence content) {
+    super(uri, Kind.SOURCE);
+    this.content = content;
+  }
+
+  @Override
+  public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+    return content;
+  }
+}
@@ -0,0 +1,294 @@
+package io.vertx.codetrans;
+
+import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.CatchTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ConditionalExpressionTree;
+import com.sun.source.tree.ExpressionStatementTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.ForLoopTree;
+import com.sun.source.tree.IfTree;
+import com.sun.source.tree.InstanceOfTree;
+import com.sun.source.tree.LambdaExpressionTree;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.MemberReferenceTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.tree.ParenthesizedTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.TryTree;
+import com.sun.source.tree.TypeCastTree;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.tree.JCTree;
+
+import javax.tools.Diagnostic;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks the tree of a method against the constructs accepted by the {@link ModelBuilder} and by the target
+ * {@link Lang#supports language}, without building any model. A method that passes the check can still fail
+ * to translate, e.g when it invokes an unsupported API method, a method that does not pass it always fails.<p/>
+ *
+ * The trees are checked against the {@link #KINDS} handled by the model builder. The types declared by variables
+ * and lambda parameters and the type arguments of method invocations are not checked, the model builder resolves
+ * them from the attributed symbols. The language is not asked about the expression of an expression statement,
+ * its value is discarded.<p/>
+ *
+ * The check follows the {@link TranslationOptions}: an expression folded or a branch removed by the translation
+ * is not checked.
+ *
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class SupportChecker extends TreeScanner<Void, List<TranslationDiagnostic>> {
+
+  /**
+   * The kinds of trees handled by the {@link ModelBuilder}, besides the unary and binary operators and the literals
+   * that are checked against {@link #UNARY_OPERATORS}, {@link #BINARY_OPERATORS} and {@link #LITERALS}.
+   */
+  static final Set<Tree.Kind> KINDS = EnumSet.of(
+      Tree.Kind.BLOCK, Tree.Kind.EXPRESSION_STATEMENT, Tree.Kind.VARIABLE, Tree.Kind.RETURN, Tree.Kind.THROW,
+      Tree.Kind.IF, Tree.Kind.FOR_LOOP, Tree.Kind.ENHANCED_FOR_LOOP, Tree.Kind.TRY,
+      Tree.Kind.ASSIGNMENT, Tree.Kind.CONDITIONAL_EXPRESSION, Tree.Kind.INSTANCE_OF, Tree.Kind.TYPE_CAST,
+      Tree.Kind.PARENTHESIZED, Tree.Kind.IDENTIFIER, Tree.Kind.MEMBER_SELECT, Tree.Kind.MEMBER_REFERENCE, Tree.Kind.METHOD_INVOCATION,
+      Tree.Kind.NEW_CLASS, Tree.Kind.LAMBDA_EXPRESSION, Tree.Kind.PARAMETERIZED_TYPE);
+
+  static final Set<Tree.Kind> UNARY_OPERATORS = EnumSet.of(
+      Tree.Kind.POSTFIX_INCREMENT, Tree.Kind.POSTFIX_DECREMENT,
+      Tree.Kind.PREFIX_INCREMENT, Tree.Kind.PREFIX_DECREMENT,
+      Tree.Kind.LOGICAL_COMPLEMENT, Tree.Kind.UNARY_MINUS, Tree.Kind.UNARY_PLUS);
+
+  static final Set<Tree.Kind> BINARY_OPERATORS = EnumSet.of(
+      Tree.Kind.CONDITIONAL_AND, Tree.Kind.CONDITIONAL_OR,
+      Tree.Kind.EQUAL_TO, Tree.Kind.NOT_EQUAL_TO,
+      Tree.Kind.LESS_THAN, Tree.Kind.LESS_THAN_EQUAL, Tree.Kind.GREATER_THAN, Tree.Kind.GREATER_THAN_EQUAL,
+      Tree.Kind.PLUS, Tree.Kind.MINUS, Tree.Kind.MULTIPLY, Tree.Kind.DIVIDE, Tree.Kind.REMAINDER,
+      Tree.Kind.AND, Tree.Kind.OR, Tree.Kind.XOR);
+
+  static final Set<Tree.Kind> LITERALS = EnumSet.of(
+      Tree.Kind.NULL_LITERAL, Tree.Kind.STRING_LITERAL, Tree.Kind.BOOLEAN_LITERAL, Tree.Kind.INT_LITERAL,
+      Tree.Kind.LONG_LITERAL, Tree.Kind.CHAR_LITERAL, Tree.Kind.FLOAT_LITERAL, Tree.Kind.DOUBLE_LITERAL);
+
+  private final CompilationUnitTree unit;
+  private final SourcePositions positions;
+  private final Lang lang;
+  private final String method;
+  private final boolean constantFolding;
+  private final boolean treeShaking;
+  private Tree discarded;
+
+  /**
+   * @param unit the compilation unit of the method
+   * @param positions the source positions of the unit
+   * @param lang the target language
+   * @param method the qualified name of the method, e.g {@code echo.Server.start}
+   * @param options the translation options
+   */
+  public SupportChecker(CompilationUnitTree unit, SourcePositions positions, Lang lang, String method, TranslationOptions options) {
+    this.unit = unit;
+    this.positions = positions;
+    this.lang = lang;
+    this.method = method;
+    this.constantFolding = options.isConstantFolding();
+    this.treeShaking = options.isTreeShaking();
+  }
+
+  /**
+   * @param tree the method tree
+   * @return the diagnostics of the unsupported trees, empty when the method passes the check
+   */
+  public List<TranslationDiagnostic> check(Tree tree) {
+    List<TranslationDiagnostic> diagnostics = new ArrayList<>();
+    scan(tree, diagnostics);
+    return diagnostics;
+  }
+
+  @Override
+  public Void scan(Tree tree, List<TranslationDiagnostic> diagnostics) {
+    if (tree != null) {
+      TranslationBudget budget = TranslationBudget.current();
+      if (budget != null) {
+        budget.checkTime();
+      }
+      if (!handled(tree)) {
+        report(tree, tree.getKind() + " not supported", diagnostics);
+      } else if (tree != discarded && !lang.supports(tree.getKind())) {
+        report(tree, tree.getKind() + " not supported by " + lang.getExtension(), diagnostics);
+      } else if (!folded(tree)) {
+        super.scan(tree, diagnostics);
+      }
+    }
+    return null;
+  }
+
+  private static boolean handled(Tree tree) {
+    // The operators and literals are checked by their visitors
+    return KINDS.contains(tree.getKind()) || tree instanceof UnaryTree || tree instanceof BinaryTree || tree instanceof LiteralTree;
+  }
+
+  @Override
+  public Void visitExpressionStatement(ExpressionStatementTree node, List<TranslationDiagnostic> diagnostics) {
+    discarded = node.getExpression();
+    return super.visitExpressionStatement(node, diagnostics);
+  }
+
+  @Override
+  public Void visitVariable(VariableTree node, List<TranslationDiagnostic> diagnostics) {
+    return scan(node.getInitializer(), diagnostics);
+  }
+
+  @Override
+  public Void visitLambdaExpression(LambdaExpressionTree node, List<TranslationDiagnostic> diagnostics) {
+    return scan(node.getBody(), diagnostics);
+  }
+
+  @Override
+  public Void visitMethodInvocation(MethodInvocationTree node, List<TranslationDiagnostic> diagnostics) {
+    scan(node.getMethodSelect(), diagnostics);
+    return scan(node.getArguments(), diagnostics);
+  }
+
+  @Override
+  public Void visitInstanceOf(InstanceOfTree node, List<TranslationDiagnostic> diagnostics) {
+    return scan(node.getExpression(), diagnostics);
+  }
+
+  @Override
+  public Void visitTypeCast(TypeCastTree node, List<TranslationDiagnostic> diagnostics) {
+    // The cast is transparent, the model builder translates the expression
+    return scan(node.getExpression(), diagnostics);
+  }
+
+  @Override
+  public Void visitUnary(UnaryTree node, List<TranslationDiagnostic> diagnostics) {
+    if (!UNARY_OPERATORS.contains(node.getKind())) {
+      report(node, "Unary operator " + node.getKind().name() + " not yet implemented", diagnostics);
+    }
+    return super.visitUnary(node, diagnostics);
+  }
+
+  @Override
+  public Void visitBinary(BinaryTree node, List<TranslationDiagnostic> diagnostics) {
+    if (!BINARY_OPERATORS.contains(node.getKind())) {
+      report(node, "Binary operator " + node.getKind().name() + " not yet implemented", diagnostics);
+    }
+    return super.visitBinary(node, diagnostics);
+  }
+
+  @Override
+  public Void visitLiteral(LiteralTree node, List<TranslationDiagnostic> diagnostics) {
+    if (!LITERALS.contains(node.getKind())) {
+      report(node, "Literal " + node.getKind().name() + " not yet implemented", diagnostics);
+    }
+    return null;
+  }
+
+  @Override
+  public Void visitTry(TryTree node, List<TranslationDiagnostic> diagnostics) {
+    if (node.getCatches().size() != 1) {
+      report(node, "Expecting a single catch block", diagnostics);
+    }
+    if (node.getResources().size() > 0 || node.getFinallyBlock() != null) {
+      report(node, "Expecting a try block without resources and finally block", diagnostics);
+    }
+    // Like the model builder, only the blocks are visited
+    scan(node.getBlock(), diagnostics);
+    for (CatchTree catchTree : node.getCatches()) {
+      scan(catchTree.getBlock(), diagnostics);
+    }
+    return null;
+  }
+
+  @Override
+  public Void visitForLoop(ForLoopTree node, List<TranslationDiagnostic> diagnostics) {
+    if (node.getInitializer().size() != 1) {
+      report(node, "Expecting a single for loop initializer", diagnostics);
+    }
+    if (node.getUpdate().size() != 1) {
+      report(node, "Expecting a single for loop update", diagnostics);
+    }
+    return super.visitForLoop(node, diagnostics);
+  }
+
+  @Override
+  public Void visitMemberReference(MemberReferenceTree node, List<TranslationDiagnostic> diagnostics) {
+    if (node.getMode() != MemberReferenceTree.ReferenceMode.INVOKE) {
+      report(node, "New reference not implemented yet", diagnostics);
+    }
+    return super.visitMemberReference(node, diagnostics);
+  }
+
+  @Override
+  public Void visitNewClass(NewClassTree node, List<TranslationDiagnostic> diagnostics) {
+    // Like the model builder, the body of an anonymous class is not visited
+    scan(node.getIdentifier(), diagnostics);
+    return scan(node.getArguments(), diagnostics);
+  }
+
+  @Override
+  public Void visitIf(IfTree node, List<TranslationDiagnostic> diagnostics) {
+    Boolean constant = constantCondition(node.getCondition());
+    if (constant != null) {
+      // Only the live branch is translated
+      return scan(constant ? node.getThenStatement() : node.getElseStatement(), diagnostics);
+    }
+    return super.visitIf(node, diagnostics);
+  }
+
+  @Override
+  public Void visitConditionalExpression(ConditionalExpressionTree node, List<TranslationDiagnostic> diagnostics) {
+    Boolean constant = constantCondition(node.getCondition());
+    if (constant != null) {
+      return scan(constant ? node.getTrueExpression() : node.getFalseExpression(), diagnostics);
+    }
+    return super.visitConditionalExpression(node, diagnostics);
+  }
+
+  private Boolean constantCondition(ExpressionTree condition) {
+    if (treeShaking) {
+      Object value = constValue(condition);
+      if (value instanceof Number) {
+        return ((Number) value).intValue() != 0;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return true when the tree is replaced by a literal, see {@link TranslationOptions#setConstantFolding}
+   */
+  private boolean folded(Tree tree) {
+    if (constantFolding && (tree instanceof BinaryTree || tree instanceof UnaryTree || tree instanceof ParenthesizedTree || tree instanceof ConditionalExpressionTree)) {
+      Object value = constValue(tree);
+      if (value instanceof Float) {
+        return !((Float) value).isNaN() && !((Float) value).isInfinite();
+      } else if (value instanceof Double) {
+        return !((Double) value).isNaN() && !((Double) value).isInfinite();
+      }
+      return value != null;
+    }
+    return false;
+  }
+
+  private static Object constValue(Tree tree) {
+    Type type = ((JCTree) tree).type;
+    return type != null ? type.constValue() : null;
+  }
+
+  private void report(Tree tree, String message, List<TranslationDiagnostic> diagnostics) {
+    long pos = positions.getStartPosition(unit, tree);
+    long line = -1;
+    long column = -1;
+    if (pos != Diagnostic.NOPOS) {
+      line = unit.getLineMap().getLineNumber(pos);
+      column = unit.getLineMap().getColumnNumber(pos);
+    }
+    diagnostics.add(new TranslationDiagnostic(unit.getSourceFile().getName(), line, column, tree.getKind(), lang.getExtension(), method, message));
+  }
+}
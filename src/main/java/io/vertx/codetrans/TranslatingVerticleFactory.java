@@ -0,0 +1,191 @@
+package io.vertx.codetrans;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.spi.VerticleFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A verticle factory deploying Java verticle sources translated on the fly, e.g {@code codetrans-groovy:echo/EchoServer.java}
+ * translates the {@link io.vertx.codetrans.annotations.CodeTranslate} annotated {@code start} method of the
+ * {@code echo.EchoServer} class and deploys the translation with the {@code groovy} verticle factory.<p/>
+ *
+ * The translation is done on a worker thread during the resolution of the verticle, so the event loop is never
+ * blocked by javac. The resolved translation of a verticle is kept for creating all its instances and is replaced
+ * when the verticle is resolved again. Translations are cached by hash of the Java source, a verticle deployed
+ * again with an unchanged source is not translated again.
+ *
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class TranslatingVerticleFactory implements VerticleFactory {
+
+  /**
+   * The default maximum number of cached translations = 256
+   */
+  public static final int DEFAULT_CACHE_SIZE = 256;
+
+  private final Lang lang;
+  private final String langPrefix;
+  private final String method;
+  private final Map<String, String> translations;
+  private final Map<String, String> resolved = new ConcurrentHashMap<>();
+  private Vertx vertx;
+
+  /**
+   * Create a factory translating to {@code lang}, the translations are deployed with the verticle factory
+   * of prefix {@code langPrefix}, the factory prefix is {@code codetrans-langPrefix}.
+   *
+   * @param lang the target language
+   * @param langPrefix the prefix of the language verticle factory, e.g {@code groovy}
+   */
+  public TranslatingVerticleFactory(Lang lang, String langPrefix) {
+    this(lang, langPrefix, "start", DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * @param lang the target language
+   * @param langPrefix the prefix of the language verticle factory, e.g {@code groovy}
+   * @param method the name of the translated method of the verticle class
+   * @param cacheSize the maximum number of cached translations
+   */
+  public TranslatingVerticleFactory(Lang lang, String langPrefix, String method, int cacheSize) {
+    this.lang = lang;
+    this.langPrefix = langPrefix;
+    this.method = method;
+    this.translations = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+        return size() > cacheSize;
+      }
+    });
+  }
+
+  @Override
+  public void init(Vertx vertx) {
+    this.vertx = vertx;
+  }
+
+  @Override
+  public String prefix() {
+    return "codetrans-" + langPrefix;
+  }
+
+  @Override
+  public boolean requiresResolve() {
+    return true;
+  }
+
+  @Override
+  public void resolve(String identifier, DeploymentOptions deploymentOptions, ClassLoader classLoader, Future<String> resolution) {
+    vertx.<String>executeBlocking(fut -> {
+      try {
+        fut.complete(translate(identifier, classLoader));
+      } catch (Exception e) {
+        fut.fail(e);
+      }
+    }, false, ar -> {
+      if (ar.succeeded()) {
+        resolved.put(identifier, ar.result());
+        resolution.complete(identifier);
+      } else {
+        resolution.fail(ar.cause());
+      }
+    });
+  }
+
+  @Override
+  public Verticle createVerticle(String verticleName, ClassLoader classLoader) throws Exception {
+    // Never translate here, this is called on the event loop
+    String translation = resolved.get(verticleName);
+    if (translation == null) {
+      throw new IllegalStateException("Verticle " + verticleName + " must be resolved before being created");
+    }
+    String name = translatedName(VerticleFactory.removePrefix(verticleName));
+    VerticleFactory delegate = null;
+    for (VerticleFactory factory : vertx.verticleFactories()) {
+      if (factory.prefix().equals(langPrefix) && (delegate == null || factory.order() < delegate.order())) {
+        delegate = factory;
+      }
+    }
+    if (delegate == null) {
+      throw new IllegalStateException("No verticle factory registered for prefix " + langPrefix);
+    }
+    TranslationClassLoader loader = new TranslationClassLoader(classLoader, 1);
+    loader.put(name, translation);
+    return delegate.createVerticle(langPrefix + ":" + name, loader);
+  }
+
+  /**
+   * @return the number of cached translations
+   */
+  public int cacheSize() {
+    return translations.size();
+  }
+
+  private String translate(String verticleName, ClassLoader classLoader) throws Exception {
+    String path = VerticleFactory.removePrefix(verticleName);
+    if (!path.endsWith(".java")) {
+      throw new IllegalArgumentException("Invalid Java verticle source " + path);
+    }
+    String source = load(path, classLoader);
+    String hash = hash(source);
+    String translation = translations.get(hash);
+    if (translation == null) {
+      String fqn = path.substring(0, path.length() - ".java".length()).replace('/', '.');
+      Result result = ConvertingProcessor.convertSource(classLoader, Collections.singletonList(lang), source, fqn, method).get(lang);
+      if (result instanceof Result.Source) {
+        translation = ((Result.Source) result).getValue();
+        translations.put(hash, translation);
+      } else if (result instanceof Result.Failure) {
+        throw new Exception("Could not translate " + path, ((Result.Failure) result).getCause());
+      } else {
+        throw new Exception("No " + method + " method annotated with @CodeTranslate in " + path);
+      }
+    }
+    return translation;
+  }
+
+  private String translatedName(String path) {
+    return path.substring(0, path.length() - "java".length()) + lang.getExtension();
+  }
+
+  private static String load(String path, ClassLoader classLoader) throws Exception {
+    InputStream in = classLoader.getResourceAsStream(path);
+    if (in == null) {
+      throw new Exception("Cannot resolve source " + path);
+    }
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try {
+      byte[] tmp = new byte[256];
+      while (true) {
+        int len = in.read(tmp);
+        if (len == -1) {
+          break;
+        }
+        buffer.write(tmp, 0, len);
+      }
+    } finally {
+      in.close();
+    }
+    return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static String hash(String source) throws Exception {
+    byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+    StringBuilder hex = new StringBuilder();
+    for (byte b : digest) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+}
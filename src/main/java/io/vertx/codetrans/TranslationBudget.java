@@ -0,0 +1,134 @@
+package io.vertx.codetrans;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The limits of the translation of a method, see {@link TranslationOptions#setMaxTime},
+ * {@link TranslationOptions#setMaxNodes} and {@link TranslationOptions#setMaxOutputSize}.<p/>
+ *
+ * The budget of the current translation is bound to the thread running it with {@link #run}, the
+ * {@link ModelBuilder} counts the visited nodes and the {@link CodeWriter} checks its output against it. The time
+ * is only counted while the budget is bound, so a method translated in several steps, e.g by
+ * {@link CodeTranslator#translateClass}, is not charged with the time of the other methods.<p/>
+ *
+ * The limits are checked cooperatively: the time is checked when the {@link SupportChecker} scans a tree, when the
+ * model builder visits a node and every 256 characters of output, a translation is not interrupted while it runs
+ * other code, e.g the javac attribution of the class, so it can exceed the time limit until its next check.
+ *
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+class TranslationBudget {
+
+  private static final ThreadLocal<TranslationBudget> current = new ThreadLocal<>();
+
+  /**
+   * @return the budget bound to the current thread or null
+   */
+  static TranslationBudget current() {
+    return current.get();
+  }
+
+  /**
+   * Run a task with a budget bound to the current thread.
+   *
+   * @param budget the budget, when it is null the task is run without limits
+   * @param task the task
+   * @return the task result
+   */
+  static <T> T run(TranslationBudget budget, Supplier<T> task) {
+    if (budget == null) {
+      return task.get();
+    }
+    TranslationBudget prev = current.get();
+    current.set(budget);
+    budget.enter();
+    try {
+      return task.get();
+    } finally {
+      budget.exit();
+      if (prev != null) {
+        current.set(prev);
+      } else {
+        current.remove();
+      }
+    }
+  }
+
+  /**
+   * @return the budget of a method or null when the options have no limits
+   */
+  static TranslationBudget create(String method, TranslationOptions options) {
+    if (options.getMaxTime() == 0 && options.getMaxNodes() == 0 && options.getMaxOutputSize() == 0) {
+      return null;
+    }
+    return new TranslationBudget(method, options.getMaxTime(), options.getMaxNodes(), options.getMaxOutputSize());
+  }
+
+  private final String method;
+  private final long maxTime;
+  private final long maxNodes;
+  private final int maxOutputSize;
+  private long nodes;
+  private int active;
+  private long activeSince;
+  private long elapsed;
+
+  private TranslationBudget(String method, long maxTime, long maxNodes, int maxOutputSize) {
+    this.method = method;
+    this.maxTime = TimeUnit.MILLISECONDS.toNanos(maxTime);
+    this.maxNodes = maxNodes;
+    this.maxOutputSize = maxOutputSize;
+  }
+
+  private synchronized void enter() {
+    if (active++ == 0) {
+      activeSince = System.nanoTime();
+    }
+  }
+
+  private synchronized void exit() {
+    if (--active == 0) {
+      elapsed += System.nanoTime() - activeSince;
+    }
+  }
+
+  /**
+   * Count a visited node, called by the thread building the models.
+   */
+  void visit() {
+    if (maxNodes > 0 && ++nodes > maxNodes) {
+      throw new TranslationLimitException(TranslationLimitException.Limit.NODES, "Translation of " + method + " exceeded the limit of " + maxNodes + " nodes");
+    }
+    checkTime();
+  }
+
+  /**
+   * Check the size of an output, a writer of the method checks its buffer after each append.
+   *
+   * @param size the output size
+   */
+  void output(int size) {
+    if (maxOutputSize > 0 && size > maxOutputSize) {
+      throw new TranslationLimitException(TranslationLimitException.Limit.OUTPUT_SIZE, "Translation of " + method + " exceeded the limit of " + maxOutputSize + " characters");
+    }
+    if ((size & 0xFF) == 0) {
+      checkTime();
+    }
+  }
+
+  /**
+   * Check the time spent, called by the thread running the translation.
+   */
+  void checkTime() {
+    if (maxTime > 0) {
+      long spent;
+      synchronized (this) {
+        spent = elapsed + (active > 0 ? System.nanoTime() - activeSince : 0);
+      }
+      if (spent > maxTime) {
+        throw new TranslationLimitException(TranslationLimitException.Limit.TIME, "Translation of " + method + " exceeded the limit of " + TimeUnit.NANOSECONDS.toMillis(maxTime) + " ms");
+      }
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package io.vertx.codetrans;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A class loader serving translated sources as resources, the sources are kept in memory and served with
+ * a {@code codetrans:} url that reads them from memory.<p/>
+ *
+ * The loader is thread safe, it keeps at most {@code maxSize} translations and evicts the least recently
+ * used ones. A translation can be replaced or evicted when it becomes stale, a resource url obtained before
+ * keeps serving the content it was created for.
+ *
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class TranslationClassLoader extends ClassLoader {
+
+  /**
+   * The protocol of the urls created by this loader.
+   */
+  public static final String PROTOCOL = "codetrans";
+
+  /**
+   * The default maximum number of translations = 1024
+   */
+  public static final int DEFAULT_MAX_SIZE = 1024;
+
+  static {
+    registerAsParallelCapable();
+  }
+
+  private final Map<String, Translation> translations;
+
+  public TranslationClassLoader(ClassLoader parent) {
+    this(parent, DEFAULT_MAX_SIZE);
+  }
+
+  public TranslationClassLoader(ClassLoader parent, int maxSize) {
+    super(parent);
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Invalid max size " + maxSize);
+    }
+    this.translations = new LinkedHashMap<String, Translation>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Translation> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Serve a translation result as the resource {@code name}, a {@link Result.Failure} evicts the resource.
+   *
+   * @param name the resource name
+   * @param result the translation result
+   */
+  public void put(String name, Result result) {
+    if (result instanceof Result.Source) {
+      put(name, ((Result.Source) result).getValue());
+    } else {
+      evict(name);
+    }
+  }
+
+  /**
+   * Serve a translated source as the resource {@code name}, replacing any previous translation.
+   *
+   * @param name the resource name
+   * @param source the translated source
+   */
+  public void put(String name, String source) {
+    Translation translation = new Translation(source.getBytes(StandardCharsets.UTF_8));
+    synchronized (translations) {
+      translations.put(name, translation);
+    }
+  }
+
+  /**
+   * Evict a stale translation.
+   *
+   * @param name the resource name
+   * @return true if a translation was evicted
+   */
+  public boolean evict(String name) {
+    synchronized (translations) {
+      return translations.remove(name) != null;
+    }
+  }
+
+  /**
+   * Evict all the translations.
+   */
+  public void clear() {
+    synchronized (translations) {
+      translations.clear();
+    }
+  }
+
+  /**
+   * @return the number of translations currently served
+   */
+  public int size() {
+    synchronized (translations) {
+      return translations.size();
+    }
+  }
+
+  /**
+   * Translations are looked up before the parent loader, so a stale resource of the parent, e.g a translation
+   * previously generated on the class path, never shadows the translation served from memory.
+   */
+  @Override
+  public URL getResource(String name) {
+    URL url = translationURL(name);
+    return url != null ? url : super.getResource(name);
+  }
+
+  @Override
+  public Enumeration<URL> getResources(String name) throws IOException {
+    URL url = translationURL(name);
+    if (url != null) {
+      return Collections.enumeration(Collections.singletonList(url));
+    }
+    return super.getResources(name);
+  }
+
+  @Override
+  protected URL findResource(String name) {
+    return translationURL(name);
+  }
+
+  @Override
+  protected Enumeration<URL> findResources(String name) throws IOException {
+    URL url = translationURL(name);
+    if (url != null) {
+      return Collections.enumeration(Collections.singletonList(url));
+    }
+    return super.findResources(name);
+  }
+
+  private URL translationURL(String name) {
+    Translation translation;
+    synchronized (translations) {
+      translation = translations.get(name);
+    }
+    if (translation != null) {
+      try {
+        return new URL(PROTOCOL, null, -1, "/" + name, translation);
+      } catch (MalformedURLException e) {
+        throw new AssertionError(e);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * A translation, it is the handler of the urls serving its content.
+   */
+  private static class Translation extends URLStreamHandler {
+
+    private final byte[] content;
+
+    Translation(byte[] content) {
+      this.content = content;
+    }
+
+    @Override
+    protected URLConnection openConnection(URL u) throws IOException {
+      return new URLConnection(u) {
+        @Override
+        public void connect() {
+          connected = true;
+        }
+        @Override
+        public InputStream getInputStream() {
+          return new ByteArrayInputStream(content);
+        }
+        @Override
+        public int getContentLength() {
+          return content.length;
+        }
+        @Override
+        public String getContentType() {
+          return "text/plain";
+        }
+      };
+    }
+  }
+}
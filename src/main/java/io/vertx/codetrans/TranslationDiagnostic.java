@@ -0,0 +1,96 @@
+package io.vertx.codetrans;
+
+import com.sun.source.tree.Tree;
+
+/**
+ * Describes where and why a translation failed.
+ *
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class TranslationDiagnostic {
+
+  private final String source;
+  private final long line;
+  private final long column;
+  private final Tree.Kind kind;
+  private final String lang;
+  private final String method;
+  private final String message;
+
+  public TranslationDiagnostic(String source, long line, long column, Tree.Kind kind, String lang, String method, String message) {
+    this.source = source;
+    this.line = line;
+    this.column = column;
+    this.kind = kind;
+    this.lang = lang;
+    this.method = method;
+    this.message = message;
+  }
+
+  /**
+   * @return the name of the Java source
+   */
+  public String getSource() {
+    return source;
+  }
+
+  /**
+   * @return the line of the failing tree starting at 1 or -1 when it is unknown
+   */
+  public long getLine() {
+    return line;
+  }
+
+  /**
+   * @return the column of the failing tree starting at 1 or -1 when it is unknown
+   */
+  public long getColumn() {
+    return column;
+  }
+
+  /**
+   * @return the kind of the failing tree or null when the failure is not related to a tree, e.g a compilation failure
+   */
+  public Tree.Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * @return the extension of the target language
+   */
+  public String getLang() {
+    return lang;
+  }
+
+  /**
+   * @return the qualified name of the translated method, e.g {@code echo.Server.start} or null when the source
+   * did not compile
+   */
+  public String getMethod() {
+    return method;
+  }
+
+  /**
+   * @return the failure message
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder buffer = new StringBuilder(source);
+    if (line != -1) {
+      buffer.append(':').append(line).append(':').append(column);
+    }
+    buffer.append(": ");
+    if (kind != null) {
+      buffer.append('[').append(kind).append("] ");
+    }
+    buffer.append('(').append(lang).append(") ");
+    if (method != null) {
+      buffer.append(method).append(": ");
+    }
+    return buffer.append(message).toString();
+  }
+}
@@ -0,0 +1,42 @@
+package io.vertx.codetrans;
+
+/**
+ * Thrown when the translation of a method exceeds one of the limits of its {@link TranslationOptions}.
+ *
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class TranslationLimitException extends RuntimeException {
+
+  public enum Limit {
+
+    /**
+     * See {@link TranslationOptions#setMaxTime}
+     */
+    TIME,
+
+    /**
+     * See {@link TranslationOptions#setMaxNodes}
+     */
+    NODES,
+
+    /**
+     * See {@link TranslationOptions#setMaxOutputSize}
+     */
+    OUTPUT_SIZE
+
+  }
+
+  private final Limit limit;
+
+  public TranslationLimitException(Limit limit, String message) {
+    super(message);
+    this.limit = limit;
+  }
+
+  /**
+   * @return the exceeded limit
+   */
+  public Limit getLimit() {
+    return limit;
+  }
+}
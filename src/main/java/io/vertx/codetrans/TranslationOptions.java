@@ -0,0 +1,193 @@
+package io.vertx.codetrans;
+
+/**
+ * Options configuring a {@link CodeTranslator}.
+ *
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class TranslationOptions {
+
+  /**
+   * The default value of parallel rendering = false
+   */
+  public static final boolean DEFAULT_PARALLEL_RENDERING = false;
+
+  /**
+   * The default value of constant folding = false
+   */
+  public static final boolean DEFAULT_CONSTANT_FOLDING = false;
+
+  /**
+   * The default value of tree shaking = false
+   */
+  public static final boolean DEFAULT_TREE_SHAKING = false;
+
+  /**
+   * The default maximum translation time of a method in milliseconds = 0 (no limit)
+   */
+  public static final long DEFAULT_MAX_TIME = 0;
+
+  /**
+   * The default maximum number of tree nodes visited for a method = 0 (no limit)
+   */
+  public static final long DEFAULT_MAX_NODES = 0;
+
+  /**
+   * The default maximum size of the translation of a method in characters = 0 (no limit)
+   */
+  public static final int DEFAULT_MAX_OUTPUT_SIZE = 0;
+
+  private boolean parallelRendering;
+  private boolean constantFolding;
+  private boolean treeShaking;
+  private long maxTime;
+  private long maxNodes;
+  private int maxOutputSize;
+
+  public TranslationOptions() {
+    parallelRendering = DEFAULT_PARALLEL_RENDERING;
+    constantFolding = DEFAULT_CONSTANT_FOLDING;
+    treeShaking = DEFAULT_TREE_SHAKING;
+    maxTime = DEFAULT_MAX_TIME;
+    maxNodes = DEFAULT_MAX_NODES;
+    maxOutputSize = DEFAULT_MAX_OUTPUT_SIZE;
+  }
+
+  public TranslationOptions(TranslationOptions other) {
+    parallelRendering = other.parallelRendering;
+    constantFolding = other.constantFolding;
+    treeShaking = other.treeShaking;
+    maxTime = other.maxTime;
+    maxNodes = other.maxNodes;
+    maxOutputSize = other.maxOutputSize;
+  }
+
+  /**
+   * @return whether the helper methods and fields of a compilation unit are rendered in parallel
+   */
+  public boolean isParallelRendering() {
+    return parallelRendering;
+  }
+
+  /**
+   * Set whether the helper methods and fields of a compilation unit are rendered in parallel. The models are
+   * always built on the compiler thread since javac is not thread safe, only the rendering of the built models
+   * is done concurrently, in separate buffers that are concatenated in order.
+   *
+   * @param parallelRendering true to render in parallel
+   * @return a reference to this, so the API can be used fluently
+   */
+  public TranslationOptions setParallelRendering(boolean parallelRendering) {
+    this.parallelRendering = parallelRendering;
+    return this;
+  }
+
+  /**
+   * @return whether compile time constant expressions are folded
+   */
+  public boolean isConstantFolding() {
+    return constantFolding;
+  }
+
+  /**
+   * Set whether compile time constant expressions are folded into a single literal, e.g {@code 60 * 1000} is
+   * translated to {@code 60000} and {@code "prefix" + CONSTANT} to a single string literal. The values are
+   * evaluated by javac with the Java semantic, so {@code 7 / 2} is folded to {@code 3} in every language.
+   *
+   * @param constantFolding true to fold constant expressions
+   * @return a reference to this, so the API can be used fluently
+   */
+  public TranslationOptions setConstantFolding(boolean constantFolding) {
+    this.constantFolding = constantFolding;
+    return this;
+  }
+
+  /**
+   * @return whether the branches eliminated by constant conditions are removed from the translation
+   */
+  public boolean isTreeShaking() {
+    return treeShaking;
+  }
+
+  /**
+   * Set whether the branches of an {@code if} statement or a conditional expression that a compile time constant
+   * condition eliminates are removed from the translation. The removed branches are not visited, so the helper
+   * methods and fields referenced only from them, directly or through other helpers, are not translated either.
+   *
+   * @param treeShaking true to remove the unreachable branches
+   * @return a reference to this, so the API can be used fluently
+   */
+  public TranslationOptions setTreeShaking(boolean treeShaking) {
+    this.treeShaking = treeShaking;
+    return this;
+  }
+
+  /**
+   * @return the maximum translation time of a method in milliseconds, 0 means no limit
+   */
+  public long getMaxTime() {
+    return maxTime;
+  }
+
+  /**
+   * Set the maximum time spent translating a method, attributing its class, checking it, building its models and
+   * rendering it, when the limit is exceeded the translation is stopped with a {@link TranslationLimitException}.
+   * The limit is checked cooperatively between the steps of the translation, so the time spent can exceed it by
+   * the duration of one step, e.g the attribution of the class.
+   *
+   * @param maxTime the time in milliseconds, 0 means no limit
+   * @return a reference to this, so the API can be used fluently
+   */
+  public TranslationOptions setMaxTime(long maxTime) {
+    if (maxTime < 0) {
+      throw new IllegalArgumentException("Max time must be >= 0");
+    }
+    this.maxTime = maxTime;
+    return this;
+  }
+
+  /**
+   * @return the maximum number of tree nodes visited for a method, 0 means no limit
+   */
+  public long getMaxNodes() {
+    return maxNodes;
+  }
+
+  /**
+   * Set the maximum number of tree nodes visited when building the models of a method, including the helper
+   * methods and fields it references, when the limit is exceeded the translation is stopped with a
+   * {@link TranslationLimitException}.
+   *
+   * @param maxNodes the number of nodes, 0 means no limit
+   * @return a reference to this, so the API can be used fluently
+   */
+  public TranslationOptions setMaxNodes(long maxNodes) {
+    if (maxNodes < 0) {
+      throw new IllegalArgumentException("Max nodes must be >= 0");
+    }
+    this.maxNodes = maxNodes;
+    return this;
+  }
+
+  /**
+   * @return the maximum size of the translation of a method in characters, 0 means no limit
+   */
+  public int getMaxOutputSize() {
+    return maxOutputSize;
+  }
+
+  /**
+   * Set the maximum size of the translation of a method, when the limit is exceeded the rendering is stopped
+   * with a {@link TranslationLimitException}.
+   *
+   * @param maxOutputSize the size in characters, 0 means no limit
+   * @return a reference to this, so the API can be used fluently
+   */
+  public TranslationOptions setMaxOutputSize(int maxOutputSize) {
+    if (maxOutputSize < 0) {
+      throw new IllegalArgumentException("Max output size must be >= 0");
+    }
+    this.maxOutputSize = maxOutputSize;
+    return this;
+  }
+}
@@ -0,0 +1,386 @@
+package io.vertx.codetrans;
+
+import com.sun.source.util.Trees;
+import io.vertx.codetrans.annotations.CodeTranslate;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Watches a tree of Java sources and translates again the changed sources, e.g
+ * {@code TranslationWatcher src/main/java target/translations groovy,js}.<p/>
+ *
+ * The translations are written in the output directory with the names of {@link CodeTranslateProcessor}. A burst of
+ * changes is debounced: the changes are collected until no change happens during the debounce delay, then only the
+ * changed sources are compiled, in a single javac run resolving the other sources of the tree from the source path.
+ * Only the translations whose content changed are written and the translations of a removed method or source are
+ * deleted. A translation that fails keeps its previous output and is reported in the {@link Update}.<p/>
+ *
+ * The compiler, its file manager and the languages are created once and reused by every compilation. A
+ * {@link CodeTranslator} is bound to a javac run so it is created for each compilation.
+ *
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class TranslationWatcher implements AutoCloseable {
+
+  /**
+   * The default debounce delay in milliseconds = 50
+   */
+  public static final long DEFAULT_DEBOUNCE = 50;
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.out.println("Usage: TranslationWatcher <sourceDir> <outputDir> [langs]");
+      System.exit(1);
+    }
+    List<Lang> langs = CodeTranslateProcessor.langs(args.length > 2 ? args[2] : null);
+    TranslationWatcher watcher = new TranslationWatcher(langs, Paths.get(args[0]), Paths.get(args[1]), new TranslationOptions(), DEFAULT_DEBOUNCE, System.out::println);
+    watcher.start();
+    Thread.currentThread().join();
+  }
+
+  private final List<Lang> langs;
+  private final Path sourceDir;
+  private final Path outputDir;
+  private final TranslationOptions options;
+  private final long debounce;
+  private final Consumer<Update> listener;
+  private final JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+  private final StandardJavaFileManager manager;
+  private final Map<WatchKey, Path> keys = new HashMap<>();
+  private final Map<Path, Set<Path>> outputs = new HashMap<>();
+  private WatchService watchService;
+  private Thread thread;
+
+  /**
+   * @param langs the languages to translate to
+   * @param sourceDir the watched source directory
+   * @param outputDir the directory of the translations
+   * @param options the translation options
+   * @param debounce the debounce delay in milliseconds
+   * @param listener notified on the watcher thread of each update
+   */
+  public TranslationWatcher(List<Lang> langs, Path sourceDir, Path outputDir, TranslationOptions options, long debounce, Consumer<Update> listener) {
+    this.langs = langs;
+    this.sourceDir = sourceDir.toAbsolutePath().normalize();
+    this.outputDir = outputDir.toAbsolutePath().normalize();
+    this.options = options;
+    this.debounce = debounce;
+    this.listener = listener;
+    this.manager = javac.getStandardFileManager(null, Locale.getDefault(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Translate all the sources of the tree, then watch the tree for changes.
+   */
+  public synchronized void start() throws IOException {
+    if (watchService != null) {
+      throw new IllegalStateException("Already started");
+    }
+    watchService = FileSystems.getDefault().newWatchService();
+    register(sourceDir);
+    listener.accept(translate(javaFiles(sourceDir), Collections.emptySet()));
+    thread = new Thread(this::watch, "codetrans-watcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (watchService != null) {
+      watchService.close();
+      thread.interrupt();
+    }
+    manager.close();
+  }
+
+  private void watch() {
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        Set<Path> changed = new LinkedHashSet<>();
+        collect(key, changed);
+        // Debounce the burst
+        while ((key = watchService.poll(debounce, TimeUnit.MILLISECONDS)) != null) {
+          collect(key, changed);
+        }
+        Set<Path> updated = changed.stream().filter(Files::exists).collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Path> removed = changed.stream().filter(path -> !Files.exists(path)).collect(Collectors.toSet());
+        listener.accept(translate(updated, removed));
+      }
+    } catch (InterruptedException | ClosedWatchServiceException ignore) {
+      // Closed
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private void collect(WatchKey key, Set<Path> changed) throws IOException {
+    Path dir = keys.get(key);
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        changed.addAll(javaFiles(sourceDir));
+        changed.addAll(outputs.keySet());
+      } else if (dir != null) {
+        Path path = dir.resolve((Path) event.context());
+        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+          register(path);
+          changed.addAll(javaFiles(path));
+        } else if (path.toString().endsWith(".java")) {
+          changed.add(path);
+        }
+      }
+    }
+    if (!key.reset()) {
+      keys.remove(key);
+    }
+  }
+
+  private void register(Path root) throws IOException {
+    try (Stream<Path> dirs = Files.walk(root)) {
+      for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+        WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        keys.put(key, dir);
+      }
+    }
+  }
+
+  private static Set<Path> javaFiles(Path root) throws IOException {
+    try (Stream<Path> files = Files.walk(root)) {
+      return files.filter(path -> path.toString().endsWith(".java") && Files.isRegularFile(path)).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+  }
+
+  /**
+   * Translate the updated sources and delete the translations of the removed sources.
+   *
+   * @param updated the updated sources
+   * @param removed the removed sources
+   * @return the update
+   */
+  synchronized Update translate(Set<Path> updated, Set<Path> removed) {
+    long now = System.nanoTime();
+    updated = normalize(updated);
+    removed = normalize(removed);
+    Update update = new Update(updated, removed);
+    for (Path source : removed) {
+      Set<Path> translations = outputs.remove(source);
+      if (translations != null) {
+        translations.forEach(path -> delete(path, update));
+      }
+    }
+    if (updated.size() > 0) {
+      Translating processor = new Translating(update);
+      DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+      JavaCompiler.CompilationTask task = javac.getTask(
+          null,
+          manager,
+          diagnostics,
+          Arrays.asList("-proc:only", "-implicit:none", "-sourcepath", sourceDir.toString()),
+          null,
+          manager.getJavaFileObjectsFromFiles(updated.stream().map(Path::toFile).collect(Collectors.toList())));
+      task.setProcessors(Collections.<Processor>singletonList(processor));
+      if (task.call()) {
+        for (Path source : updated) {
+          Set<Path> translations = processor.produced.getOrDefault(source, Collections.emptySet());
+          Set<Path> previous = outputs.put(source, translations);
+          if (previous != null) {
+            previous.stream().filter(path -> !translations.contains(path)).forEach(path -> delete(path, update));
+          }
+        }
+      } else {
+        StringBuilder message = new StringBuilder("Compilation failed:");
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+          if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+            message.append('\n').append(diagnostic.getSource() != null ? diagnostic.getSource().getName() + ":" + diagnostic.getLineNumber() + ": " : "").append(diagnostic.getMessage(Locale.getDefault()));
+          }
+        }
+        update.compilationFailure = message.toString();
+      }
+    }
+    update.latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - now);
+    return update;
+  }
+
+  private static Set<Path> normalize(Set<Path> paths) {
+    return paths.stream().map(path -> path.toAbsolutePath().normalize()).collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  private void delete(Path path, Update update) {
+    try {
+      if (Files.deleteIfExists(path)) {
+        update.deleted.add(path);
+      }
+    } catch (IOException e) {
+      update.failures.put(path.toString(), e.getMessage());
+    }
+  }
+
+  private class Translating extends AbstractProcessor {
+
+    private final Update update;
+    private final Map<Path, Set<Path>> produced = new HashMap<>();
+
+    Translating(Update update) {
+      this.update = update;
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return Collections.singleton(CodeTranslate.class.getName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      CodeTranslator translator = new CodeTranslator(processingEnv, options);
+      Trees trees = Trees.instance(processingEnv);
+      for (Element annotatedElt : roundEnv.getElementsAnnotatedWith(CodeTranslate.class)) {
+        ExecutableElement methodElt = (ExecutableElement) annotatedElt;
+        TypeElement typeElt = (TypeElement) methodElt.getEnclosingElement();
+        Path source = Paths.get(trees.getPath(typeElt).getCompilationUnit().getSourceFile().toUri()).toAbsolutePath().normalize();
+        String pkg = processingEnv.getElementUtils().getPackageOf(typeElt).getQualifiedName().toString();
+        String simpleName = processingEnv.getElementUtils().getBinaryName(typeElt).toString();
+        Path dir = outputDir;
+        if (pkg.length() > 0) {
+          simpleName = simpleName.substring(pkg.length() + 1);
+          dir = outputDir.resolve(pkg.replace('.', '/'));
+        }
+        for (Lang lang : langs) {
+          Path target = dir.resolve(CodeTranslateProcessor.translationName(simpleName, methodElt.getSimpleName().toString(), lang));
+          // A failed translation keeps its previous output
+          produced.computeIfAbsent(source, k -> new LinkedHashSet<>()).add(target);
+          try {
+            write(target, translator.translate(methodElt, lang));
+          } catch (Exception e) {
+            update.failures.put(typeElt.getQualifiedName() + "." + methodElt.getSimpleName() + " (" + lang.getExtension() + ")", String.valueOf(e.getMessage()));
+          }
+        }
+      }
+      return false;
+    }
+
+    private void write(Path target, String translation) throws IOException {
+      byte[] bytes = translation.getBytes(StandardCharsets.UTF_8);
+      if (Files.exists(target) && Arrays.equals(bytes, Files.readAllBytes(target))) {
+        return;
+      }
+      Files.createDirectories(target.getParent());
+      Files.write(target, bytes);
+      update.written.add(target);
+    }
+  }
+
+  /**
+   * The outcome of the translation of a set of changes.
+   */
+  public static class Update {
+
+    private final Set<Path> updated;
+    private final Set<Path> removed;
+    private final List<Path> written = new ArrayList<>();
+    private final List<Path> deleted = new ArrayList<>();
+    private final Map<String, String> failures = new LinkedHashMap<>();
+    private String compilationFailure;
+    private long latency;
+
+    Update(Set<Path> updated, Set<Path> removed) {
+      this.updated = updated;
+      this.removed = removed;
+    }
+
+    /**
+     * @return the updated sources
+     */
+    public Set<Path> getUpdated() {
+      return updated;
+    }
+
+    /**
+     * @return the removed sources
+     */
+    public Set<Path> getRemoved() {
+      return removed;
+    }
+
+    /**
+     * @return the written translations, a translation whose content did not change is not written
+     */
+    public List<Path> getWritten() {
+      return written;
+    }
+
+    /**
+     * @return the deleted translations
+     */
+    public List<Path> getDeleted() {
+      return deleted;
+    }
+
+    /**
+     * @return the translation failures keyed by method and language
+     */
+    public Map<String, String> getFailures() {
+      return failures;
+    }
+
+    /**
+     * @return the compilation failure or null when the changed sources compiled
+     */
+    public String getCompilationFailure() {
+      return compilationFailure;
+    }
+
+    /**
+     * @return the time in milliseconds between the end of the debounce and the written translations
+     */
+    public long getLatency() {
+      return latency;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder buffer = new StringBuilder();
+      buffer.append(updated.size() + removed.size()).append(" changed source(s) in ").append(latency).append(" ms: ")
+          .append(written.size()).append(" written, ").append(deleted.size()).append(" deleted");
+      written.forEach(path -> buffer.append("\n  + ").append(path));
+      deleted.forEach(path -> buffer.append("\n  - ").append(path));
+      failures.forEach((name, message) -> buffer.append("\n  ! ").append(name).append(": ").append(message));
+      if (compilationFailure != null) {
+        buffer.append('\n').append(compilationFailure);
+      }
+      return buffer.toString();
+    }
+  }
+}
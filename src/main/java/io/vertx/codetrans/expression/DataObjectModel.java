@@ -32,7 +32,7 @@ public class DataObjectModel extends ExpressionModel {
     if (DataObjectLiteralModel.isGet(methodName)) {
       return builder.render(writer -> {
         writer.renderDataObjectMemberSelect(expression,
-            DataObjectLiteralModel.unwrapSet(methodName));
+            DataObjectLiteralModel.unwrapSet(methodName), returnType);
       });
     }
     throw new UnsupportedOperationException("Unsupported method " + method + " on object model");
@@ -31,18 +31,18 @@ public class JsonArrayModel extends ExpressionModel {
       case "getInteger":
         if (argumentModels.size() == 1) {
           return builder.render(writer -> {
-            writer.renderJsonArrayGet(expression, argumentModels.get(0));
+            writer.renderJsonArrayGet(expression, argumentModels.get(0), returnType);
           });
         } else {
           throw unsupported("Invalid arguments " + argumentModels);
         }
       case "getJsonArray":
         return new JsonArrayModel(builder, builder.render(writer -> {
-          writer.renderJsonArrayGet(expression, argumentModels.get(0));
+          writer.renderJsonArrayGet(expression, argumentModels.get(0), returnType);
         }));
       case "getJsonObject":
         return new JsonObjectModel(builder, builder.render(writer -> {
-          writer.renderJsonArrayGet(expression, argumentModels.get(0));
+          writer.renderJsonArrayGet(expression, argumentModels.get(0), returnType);
         }));
       case "encode":
       case "encodePrettily": {
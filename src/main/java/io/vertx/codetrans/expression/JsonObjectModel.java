@@ -49,7 +49,7 @@ public class JsonObjectModel extends ExpressionModel {
         if (argumentModels.size() == 1) {
           return builder.render(writer -> {
             StringLiteralModel name = (StringLiteralModel) argumentModels.get(0);
-            writer.renderJsonObjectMemberSelect(expression, name.value);
+            writer.renderJsonObjectMemberSelect(expression, name.value, returnType);
           });
         } else {
           throw unsupported("Invalid arguments " + argumentModels);
@@ -6,6 +6,7 @@ import io.vertx.codegen.type.ApiTypeInfo;
 import io.vertx.codegen.type.ClassTypeInfo;
 import io.vertx.codegen.type.EnumTypeInfo;
 import io.vertx.codegen.type.ParameterizedTypeInfo;
+import io.vertx.codegen.type.TypeVariableInfo;
 import io.vertx.codetrans.expression.ApiTypeModel;
 import io.vertx.codetrans.CodeModel;
 import io.vertx.codetrans.expression.EnumExpressionModel;
@@ -18,8 +19,9 @@ import io.vertx.codetrans.RunnableCompilationUnit;
 import io.vertx.codetrans.statement.StatementModel;
 
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,7 +29,18 @@ import java.util.Map;
  */
 class GroovyCodeBuilder implements CodeBuilder {
 
+  /**
+   * The name of the statically compiled method running the main body.
+   */
+  private static final String MAIN = "_main";
+
   LinkedHashSet<ClassTypeInfo> imports = new LinkedHashSet<>();
+  private final boolean compileStatic;
+  private final Map<String, TypeInfo> globals = new LinkedHashMap<>();
+
+  GroovyCodeBuilder(boolean compileStatic) {
+    this.compileStatic = compileStatic;
+  }
 
   @Override
   public GroovyWriter newWriter() {
@@ -40,34 +53,115 @@ class GroovyCodeBuilder implements CodeBuilder {
     if (unit.getFields().size() > 0) {
       writer.append("import groovy.transform.Field\n");
     }
+    if (compileStatic) {
+      writer.append("import groovy.transform.CompileStatic\n");
+    }
     for (ClassTypeInfo importedType : imports) {
       String fqn = importedType.getName();
       writer.append("import ").append(fqn).append('\n');
     }
-    for (Map.Entry<String, StatementModel> field : unit.getFields().entrySet()) {
-      writer.append("@Field ");
-      field.getValue().render(writer);
-      writer.append("\n");
+    if (compileStatic) {
+      // Typed getters resolve the globals of the binding in statically compiled code
+      globals.forEach((name, type) -> {
+        String typeName = typeName(type);
+        writer.append(typeName).append(" get").append(Character.toUpperCase(name.charAt(0))).append(name.substring(1)).append("() {\n");
+        writer.indent();
+        if (!typeName.equals("def")) {
+          writer.append('(').append(typeName).append(") ");
+        }
+        writer.append("binding.getVariable(\"").append(name).append("\")\n");
+        writer.unindent();
+        writer.append("}\n");
+      });
     }
-    for (Map.Entry<String, MethodModel> method : unit.getMethods().entrySet()) {
-      writer.append("def ").append(method.getKey()).append("(");
-      for (Iterator<String> it = method.getValue().getParameterNames().iterator();it.hasNext();) {
-        String paramName = it.next();
-        writer.append(paramName);
-        if (it.hasNext()) {
-          writer.append(", ");
+    unit.renderFields(writer, (fieldWriter, field) -> {
+      fieldWriter.append("@Field ");
+      field.getValue().render(fieldWriter);
+      fieldWriter.append("\n");
+    });
+    unit.renderMethods(writer, (methodWriter, method) -> {
+      MethodModel model = method.getValue();
+      if (compileStatic) {
+        methodWriter.append("@CompileStatic\n");
+        methodWriter.append(typeName(model.getSignature().getReturnType())).append(' ');
+      } else {
+        methodWriter.append("def ");
+      }
+      methodWriter.append(method.getKey()).append("(");
+      List<String> parameterNames = model.getParameterNames();
+      for (int i = 0;i < parameterNames.size();i++) {
+        if (i > 0) {
+          methodWriter.append(", ");
+        }
+        if (compileStatic) {
+          methodWriter.append(typeName(model.getSignature().getParameterTypes().get(i))).append(' ');
         }
+        methodWriter.append(parameterNames.get(i));
       }
-      writer.append(") {\n");
+      methodWriter.append(") {\n");
+      methodWriter.indent();
+      model.render(methodWriter);
+      methodWriter.unindent();
+      methodWriter.append("}\n");
+    });
+    if (compileStatic) {
+      writer.append("@CompileStatic\n");
+      writer.append("def ").append(MAIN).append("() {\n");
       writer.indent();
-      method.getValue().render(writer);
+      unit.getMain().render(writer);
       writer.unindent();
       writer.append("}\n");
+      writer.append(MAIN).append("()\n");
+    } else {
+      unit.getMain().render(writer);
     }
-    unit.getMain().render(writer);
     return writer.getBuffer().toString();
   }
 
+  /**
+   * @return true when the translation is statically compiled
+   */
+  boolean isCompileStatic() {
+    return compileStatic;
+  }
+
+  /**
+   * @return the Groovy name of a static type, json objects and data objects are rendered as map literals and json
+   * arrays as list literals
+   */
+  static String typeName(TypeInfo type) {
+    switch (type.getKind()) {
+      case JSON_OBJECT:
+      case DATA_OBJECT:
+        return "java.util.Map<java.lang.String, java.lang.Object>";
+      case JSON_ARRAY:
+        return "java.util.List<java.lang.Object>";
+      default:
+        if (type instanceof TypeVariableInfo) {
+          return "def";
+        } else if (type instanceof ParameterizedTypeInfo) {
+          return ((ParameterizedTypeInfo) type).getRaw().getName();
+        } else {
+          return type.getName();
+        }
+    }
+  }
+
+  @Override
+  public ExpressionModel identifier(String name, VariableScope scope, TypeInfo type) {
+    if (scope == VariableScope.GLOBAL) {
+      globals.put(name, type);
+    }
+    return CodeBuilder.super.identifier(name, scope, type);
+  }
+
+  @Override
+  public void include(CodeBuilder other) {
+    GroovyCodeBuilder that = (GroovyCodeBuilder) other;
+    imports.addAll(that.imports);
+    that.globals.forEach(globals::putIfAbsent);
+  }
+
   @Override
   public EnumExpressionModel enumType(EnumTypeInfo type) {
     imports.add(type);
@@ -88,7 +182,7 @@ class GroovyCodeBuilder implements CodeBuilder {
   @Override
   public StatementModel variableDecl(VariableScope scope, TypeInfo type, String name, ExpressionModel initializer) {
     return StatementModel.render(renderer -> {
-      renderer.append("def ").append(name);
+      renderer.append(compileStatic ? typeName(type) : "def").append(' ').append(name);
       if (initializer != null) {
         renderer.append(" = ");
         initializer.render(renderer);
@@ -108,6 +202,29 @@ class GroovyCodeBuilder implements CodeBuilder {
     });
   }
 
+  @Override
+  public StatementModel enhancedForLoop(String variableName, TypeInfo variableType, ExpressionModel expression, TypeInfo expressionType, boolean closures, StatementModel body) {
+    if (!compileStatic || closures) {
+      // A closure declared in the body must capture its own loop variable
+      return enhancedForLoop(variableName, expression, body);
+    }
+    return StatementModel.render(renderer -> {
+      String typeName = typeName(variableType);
+      renderer.append("for (");
+      if (typeName.equals("def")) {
+        renderer.append(variableName).append(" in ");
+      } else {
+        renderer.append(typeName).append(' ').append(variableName).append(" : ");
+      }
+      expression.render(renderer);
+      renderer.append(") {\n");
+      renderer.indent();
+      body.render(renderer);
+      renderer.unindent();
+      renderer.append("}");
+    });
+  }
+
   @Override
   public StatementModel forLoop(StatementModel initializer, ExpressionModel condition, ExpressionModel update, StatementModel body) {
     return StatementModel.render(renderer -> {
@@ -139,4 +256,22 @@ class GroovyCodeBuilder implements CodeBuilder {
       writer.append("}");
     });
   }
+
+  @Override
+  public StatementModel sequenceForLoop(String variableName, TypeInfo variableType, ExpressionModel fromValue, ExpressionModel toValue, boolean closures, StatementModel body) {
+    if (!compileStatic || closures) {
+      return sequenceForLoop(variableName, fromValue, toValue, body);
+    }
+    return StatementModel.render(writer -> {
+      writer.append("for (").append(typeName(variableType)).append(' ').append(variableName).append(" = ");
+      fromValue.render(writer);
+      writer.append(';').append(variableName).append(" < ");
+      toValue.render(writer);
+      writer.append(';').append(variableName).append("++) {\n");
+      writer.indent();
+      body.render(writer);
+      writer.unindent();
+      writer.append("}");
+    });
+  }
 }
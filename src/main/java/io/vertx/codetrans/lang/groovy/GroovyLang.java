@@ -13,9 +13,32 @@ import java.util.Map;
  */
 public class GroovyLang implements Lang {
 
+  private boolean compileStatic;
+
+  /**
+   * @return true when the translation is statically compiled
+   */
+  public boolean isCompileStatic() {
+    return compileStatic;
+  }
+
+  /**
+   * Set the static compilation mode: declarations are typed, loops are classic {@code for} loops and the script
+   * methods are annotated with {@code @CompileStatic}, the script globals are exposed as typed getters. Json objects
+   * and data objects are typed as {@code Map}, json arrays as {@code List} and the values read from them are cast
+   * to the type of their getter.
+   *
+   * @param compileStatic true to emit statically compiled code
+   * @return a reference to this, so the API can be used fluently
+   */
+  public GroovyLang setCompileStatic(boolean compileStatic) {
+    this.compileStatic = compileStatic;
+    return this;
+  }
+
   @Override
   public CodeBuilder codeBuilder() {
-    return new GroovyCodeBuilder();
+    return new GroovyCodeBuilder(compileStatic);
   }
 
   @Override
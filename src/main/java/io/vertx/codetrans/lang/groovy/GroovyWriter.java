@@ -290,6 +290,35 @@ class GroovyWriter extends CodeWriter {
     append(name);
   }
 
+  @Override
+  public void renderJsonObjectMemberSelect(ExpressionModel expression, String name, TypeInfo type) {
+    renderCast(type, () -> renderJsonObjectMemberSelect(expression, name));
+  }
+
+  @Override
+  public void renderJsonArrayGet(ExpressionModel expression, ExpressionModel index, TypeInfo type) {
+    renderCast(type, () -> renderJsonArrayGet(expression, index));
+  }
+
+  @Override
+  public void renderDataObjectMemberSelect(ExpressionModel expression, String name, TypeInfo type) {
+    renderCast(type, () -> renderDataObjectMemberSelect(expression, name));
+  }
+
+  /**
+   * Cast a value read from a map or a list literal to its static type when the code is statically compiled.
+   */
+  private void renderCast(TypeInfo type, Runnable value) {
+    String typeName = builder.isCompileStatic() ? GroovyCodeBuilder.typeName(type) : "def";
+    if (typeName.equals("def") || typeName.equals(Object.class.getName())) {
+      value.run();
+    } else {
+      append("((").append(typeName).append(") ");
+      value.run();
+      append(')');
+    }
+  }
+
   @Override
   public void renderJsonObjectToString(ExpressionModel expression) {
     append("groovy.json.JsonOutput.toJson(");
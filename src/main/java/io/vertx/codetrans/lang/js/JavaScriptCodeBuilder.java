@@ -3,6 +3,7 @@ package io.vertx.codetrans.lang.js;
 import com.sun.source.tree.LambdaExpressionTree;
 import io.vertx.codegen.Helper;
 import io.vertx.codegen.type.ApiTypeInfo;
+import io.vertx.codegen.type.ClassKind;
 import io.vertx.codegen.type.ClassTypeInfo;
 import io.vertx.codegen.type.ParameterizedTypeInfo;
 import io.vertx.codegen.type.TypeReflectionFactory;
@@ -14,7 +15,6 @@ import io.vertx.codetrans.CodeWriter;
 import io.vertx.codetrans.expression.ExpressionModel;
 import io.vertx.codetrans.expression.VariableScope;
 import io.vertx.codetrans.expression.LambdaExpressionModel;
-import io.vertx.codetrans.MethodModel;
 import io.vertx.codetrans.RunnableCompilationUnit;
 import io.vertx.codetrans.statement.StatementModel;
 
@@ -29,6 +29,11 @@ import java.util.Map;
 class JavaScriptCodeBuilder implements CodeBuilder {
 
   LinkedHashSet<ClassTypeInfo> modules = new LinkedHashSet<>();
+  private final boolean fast;
+
+  JavaScriptCodeBuilder(boolean fast) {
+    this.fast = fast;
+  }
 
   @Override
   public CodeWriter newWriter() {
@@ -38,31 +43,63 @@ class JavaScriptCodeBuilder implements CodeBuilder {
   @Override
   public String render(RunnableCompilationUnit unit) {
     CodeWriter writer = newWriter();
+    renderRequires(writer);
+    renderUnit(writer, unit);
+    return writer.getBuffer().toString();
+  }
+
+  /**
+   * Render the units as a module requiring once the modules of all units, each unit is a function exported
+   * under its key, e.g {@code exports["echo.Server.start"] = function() { ... };}.
+   */
+  @Override
+  public String renderBundle(Map<String, RunnableCompilationUnit> units) {
+    CodeWriter writer = newWriter();
+    renderRequires(writer);
+    units.forEach((name, unit) -> {
+      writer.append("exports[").renderStringLiteral(name);
+      writer.append("] = function() {\n");
+      writer.indent();
+      renderUnit(writer, unit);
+      writer.unindent();
+      writer.append("};\n");
+    });
+    return writer.getBuffer().toString();
+  }
+
+  private void renderRequires(CodeWriter writer) {
     for (ClassTypeInfo module : modules) {
       writer.append("var ").append(module.getSimpleName()).append(" = require(\"").
           append(module.getModuleName()).append("-js/").append(Helper.convertCamelCaseToUnderscores(module.getSimpleName())).append("\");\n");
     }
-    for (Map.Entry<String, StatementModel> field : unit.getFields().entrySet()) {
-      field.getValue().render(writer);
-      writer.append(";\n");
-    }
-    for (Map.Entry<String, MethodModel> member : unit.getMethods().entrySet()) {
-      writer.append("var ").append(member.getKey()).append(" = function(");
+  }
+
+  private void renderUnit(CodeWriter writer, RunnableCompilationUnit unit) {
+    unit.renderFields(writer, (fieldWriter, field) -> {
+      field.getValue().render(fieldWriter);
+      fieldWriter.append(";\n");
+    });
+    unit.renderMethods(writer, (memberWriter, member) -> {
+      memberWriter.append("var ").append(member.getKey()).append(" = function(");
       for (Iterator<String> it = member.getValue().getParameterNames().iterator();it.hasNext();) {
         String paramName = it.next();
-        writer.append(paramName);
+        memberWriter.append(paramName);
         if (it.hasNext()) {
-          writer.append(", ");
+          memberWriter.append(", ");
         }
       }
-      writer.append(") {\n");
-      writer.indent();
-      member.getValue().render(writer);
-      writer.unindent();
-      writer.append("};\n");
-    }
+      memberWriter.append(") {\n");
+      memberWriter.indent();
+      member.getValue().render(memberWriter);
+      memberWriter.unindent();
+      memberWriter.append("};\n");
+    });
     unit.getMain().render(writer);
-    return writer.getBuffer().toString();
+  }
+
+  @Override
+  public void include(CodeBuilder other) {
+    modules.addAll(((JavaScriptCodeBuilder) other).modules);
   }
 
   @Override
@@ -100,6 +137,29 @@ class JavaScriptCodeBuilder implements CodeBuilder {
     });
   }
 
+  @Override
+  public StatementModel enhancedForLoop(String variableName, TypeInfo variableType, ExpressionModel expression, TypeInfo expressionType, boolean closures, StatementModel body) {
+    if (!fast || closures || expressionType == null || (expressionType.getKind() != ClassKind.LIST && expressionType.getKind() != ClassKind.JSON_ARRAY)) {
+      // A closure declared in the body must capture its own loop variable
+      return enhancedForLoop(variableName, expression, body);
+    }
+    String items = "_" + variableName + "_items";
+    String index = "_" + variableName + "_idx";
+    String length = "_" + variableName + "_len";
+    return StatementModel.conditional((renderer) -> {
+      renderer.append("var ").append(items).append(" = ");
+      expression.render(renderer);
+      renderer.append(";\n");
+      renderer.append("for (var ").append(index).append(" = 0, ").append(length).append(" = ").append(items).append(".length;");
+      renderer.append(index).append(" < ").append(length).append(";").append(index).append("++) {\n");
+      renderer.indent();
+      renderer.append("var ").append(variableName).append(" = ").append(items).append("[").append(index).append("];\n");
+      body.render(renderer);
+      renderer.unindent();
+      renderer.append("}");
+    });
+  }
+
   @Override
   public StatementModel forLoop(StatementModel initializer, ExpressionModel condition, ExpressionModel update, StatementModel body) {
     return StatementModel.conditional((renderer) -> {
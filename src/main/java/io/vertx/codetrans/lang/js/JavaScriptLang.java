@@ -3,15 +3,18 @@ package io.vertx.codetrans.lang.js;
 import io.vertx.codegen.type.ClassTypeInfo;
 import io.vertx.codetrans.Lang;
 import io.vertx.codetrans.Script;
+import io.vertx.codetrans.ScriptPool;
 import io.vertx.codetrans.CodeBuilder;
 
-import javax.script.ScriptContext;
+import javax.script.Invocable;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
-import javax.script.SimpleBindings;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,24 +23,51 @@ import java.util.Map;
 public class JavaScriptLang implements Lang {
 
   LinkedHashSet<ClassTypeInfo> modules = new LinkedHashSet<>();
+  private boolean fast;
+
+  /**
+   * @return true when the fast emission profile is used
+   */
+  public boolean isFast() {
+    return fast;
+  }
+
+  /**
+   * Set the fast emission profile: lists, json arrays and arrays are iterated with indexed {@code for} loops with a
+   * hoisted bound instead of a closure invoked by {@code Array.prototype.forEach}, unless the loop body declares
+   * closures that capture the loop variable. The profile avoids a function call per element, its gain depends on
+   * the engine and the workload and should be measured with the {@link io.vertx.codetrans.ExecutionHarness}.
+   *
+   * @param fast true to use the fast emission profile
+   * @return a reference to this, so the API can be used fluently
+   */
+  public JavaScriptLang setFast(boolean fast) {
+    this.fast = fast;
+    return this;
+  }
 
   @Override
   public CodeBuilder codeBuilder() {
-    return new JavaScriptCodeBuilder();
+    return new JavaScriptCodeBuilder(fast);
+  }
+
+  /**
+   * An engine of a script pool with the script functions it compiled.
+   */
+  private static class Engine {
+
+    final ScriptEngine engine;
+    final Map<List<String>, Object> functions = new HashMap<>();
+
+    Engine(ScriptEngine engine) {
+      this.engine = engine;
+    }
   }
 
   @Override
   public Script loadScript(ClassLoader loader, String source) throws Exception {
-    ScriptEngineManager mgr = new ScriptEngineManager();
-    ScriptEngine engine = mgr.getEngineByName("nashorn");
-    engine.put("__engine", engine);
-    InputStream require = getClass().getClassLoader().getResourceAsStream("vertx-js/util/require.js");
-    if (require == null) {
-      throw new Exception("Not require.js");
-    }
-    engine.put(ScriptEngine.FILENAME, "require.js");
-    engine.eval(new InputStreamReader(require));
-    engine.eval("var console = require('vertx-js/util/console')");
+    // An engine evaluates one execution at a time, concurrent executions use other engines of the pool
+    ScriptPool<Engine> engines = new ScriptPool<>(() -> new Engine(createEngine()), ScriptPool.DEFAULT_MAX_SIZE);
     return new Script() {
       @Override
       public String getSource() {
@@ -46,12 +76,40 @@ public class JavaScriptLang implements Lang {
 
       @Override
       public void run(Map<String, Object> globals) throws Exception {
-        engine.setBindings(new SimpleBindings(globals), ScriptContext.GLOBAL_SCOPE);
-        engine.eval(source);
+        List<String> names = new ArrayList<>(globals.keySet());
+        Object[] args = new Object[names.size() + 1];
+        for (int i = 0;i < names.size();i++) {
+          args[i + 1] = globals.get(names.get(i));
+        }
+        engines.execute(engine -> {
+          // The globals are the parameters of a function wrapping the source, so the callbacks of an execution
+          // keep the globals of this execution when they run after the engine is used by another execution
+          Object function = engine.functions.get(names);
+          if (function == null) {
+            // Same line numbers as the source
+            function = engine.engine.eval("(function(" + String.join(", ", names) + ") {" + source + "\n})");
+            engine.functions.put(names, function);
+          }
+          ((Invocable) engine.engine).invokeMethod(function, "call", args);
+        });
       }
     };
   }
 
+  private ScriptEngine createEngine() throws Exception {
+    ScriptEngineManager mgr = new ScriptEngineManager();
+    ScriptEngine engine = mgr.getEngineByName("nashorn");
+    engine.put("__engine", engine);
+    InputStream require = getClass().getClassLoader().getResourceAsStream("vertx-js/util/require.js");
+    if (require == null) {
+      throw new Exception("Not require.js");
+    }
+    engine.put(ScriptEngine.FILENAME, "require.js");
+    engine.eval(new InputStreamReader(require));
+    engine.eval("var console = require('vertx-js/util/console')");
+    return engine;
+  }
+
   @Override
   public String getExtension() {
     return "js";
@@ -18,6 +18,7 @@ import io.vertx.codetrans.statement.StatementModel;
 import io.vertx.codetrans.expression.ThisModel;
 
 import javax.lang.model.element.TypeElement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
@@ -330,6 +331,8 @@ class JavaScriptWriter extends CodeWriter {
 
   @Override
   public void renderMethodInvocation(ExpressionModel expression, TypeInfo receiverType, MethodSignature method, TypeInfo returnType, List<ExpressionModel> argumentModels, List<TypeInfo> argumentTypes) {
+    // Copy the arguments since a model can be rendered several times
+    argumentModels = new ArrayList<>(argumentModels);
     List<TypeInfo> parameterTypes = method.getParameterTypes();
     for (int i = 0;i < parameterTypes.size();i++) {
       TypeInfo parameterType = parameterTypes.get(i);
@@ -23,6 +23,11 @@ public class KotlinCodeBuilder implements CodeBuilder {
     return new KotlinCodeWriter(this);
   }
 
+  @Override
+  public void include(CodeBuilder other) {
+    imports.addAll(((KotlinCodeBuilder) other).imports);
+  }
+
   @Override
   public String render(RunnableCompilationUnit unit) {
     KotlinCodeWriter writer = newWriter();
@@ -32,13 +37,13 @@ public class KotlinCodeBuilder implements CodeBuilder {
     }
     writer.append("\n");
 
-    for (Map.Entry<String, StatementModel> field : unit.getFields().entrySet()) {
-      field.getValue().render(writer);
-      writer.append("\n");
-    }
+    unit.renderFields(writer, (fieldWriter, field) -> {
+      field.getValue().render(fieldWriter);
+      fieldWriter.append("\n");
+    });
 
-    for (Map.Entry<String, MethodModel> method : unit.getMethods().entrySet()) {
-      writer.append("fun ").append(method.getKey()).append("(");
+    unit.renderMethods(writer, (methodWriter, method) -> {
+      methodWriter.append("fun ").append(method.getKey()).append("(");
       List<TypeInfo> types = method.getValue().getSignature().getParameterTypes();
       List<String> names = method.getValue().getParameterNames();
 
@@ -49,27 +54,27 @@ public class KotlinCodeBuilder implements CodeBuilder {
         TypeInfo type = types.get(i);
 
         if (i > 0) {
-          writer.append(", ");
+          methodWriter.append(", ");
         }
 
-        writer.append(name).append(": ");
-        renderType(type, writer);
+        methodWriter.append(name).append(": ");
+        renderType(type, methodWriter);
       }
 
-      writer.append(") ");
+      methodWriter.append(") ");
 
       TypeInfo returnType = method.getValue().getSignature().getReturnType();
       if (returnType != VoidTypeInfo.INSTANCE) {
-        writer.append(": ");
-        renderType(returnType, writer);
+        methodWriter.append(": ");
+        renderType(returnType, methodWriter);
       }
 
-      writer.append("{\n");
-      writer.indent();
-      method.getValue().render(writer);
-      writer.unindent();
-      writer.append("}\n");
-    }
+      methodWriter.append("{\n");
+      methodWriter.indent();
+      method.getValue().render(methodWriter);
+      methodWriter.unindent();
+      methodWriter.append("}\n");
+    });
 
     unit.getMain().render(writer);
 
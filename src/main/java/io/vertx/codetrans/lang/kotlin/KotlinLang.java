@@ -10,6 +10,8 @@ import org.jetbrains.kotlin.descriptors.ClassKind;
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,6 +20,21 @@ import java.util.Map;
 public class KotlinLang implements Lang {
   @Override
   public Script loadScript(ClassLoader loader, String source) throws Exception {
+    List<Class<?>> classes = new ArrayList<>();
+    File tmp = File.createTempFile("kc_", ".kts");
+    try {
+      Files.write(tmp.toPath(), source.getBytes(Charsets.UTF_8));
+      // The compiler environment is not thread safe, only the execution of the compiled classes is concurrent
+      synchronized (KotlinLang.class) {
+        KotlinCompilerHelper.INSTANCE.compileKotlinScript(loader, true, tmp.toURI().toURL(), (generationState, classDescriptor) ->
+          classDescriptor.getKind() == ClassKind.CLASS
+        ).forEach(classes::add);
+      }
+    } finally {
+      if (!tmp.delete() && tmp.exists()) {
+        // log warn?
+      }
+    }
     return new Script() {
       @Override
       public String getSource() {
@@ -26,23 +43,12 @@ public class KotlinLang implements Lang {
 
       @Override
       public void run(Map<String, Object> globals) throws Exception {
-        File tmp = File.createTempFile("kc_", ".kts");
-        try {
-          Files.write(tmp.toPath(), source.getBytes(Charsets.UTF_8));
-
-          KotlinCompilerHelper.INSTANCE.compileKotlinScript(loader, true, tmp.toURI().toURL(), (generationState, classDescriptor) ->
-            classDescriptor.getKind() == ClassKind.CLASS
-          ).forEach(aClass -> {
-            try {
-              aClass.getConstructor(String[].class).newInstance((Object) new String[0]);
-            } catch (NoSuchMethodException | IllegalAccessException | InstantiationException | InvocationTargetException ignore) {
-            }
-          });
-        } finally {
-          if (!tmp.delete() && tmp.exists()) {
-            // log warn?
+        classes.forEach(aClass -> {
+          try {
+            aClass.getConstructor(String[].class).newInstance((Object) new String[0]);
+          } catch (NoSuchMethodException | IllegalAccessException | InstantiationException | InvocationTargetException ignore) {
           }
-        }
+        });
       }
     };
   }
@@ -16,30 +16,76 @@ import io.vertx.codetrans.expression.EnumExpressionModel;
 import io.vertx.codetrans.expression.ExpressionModel;
 import io.vertx.codetrans.expression.VariableScope;
 import io.vertx.codetrans.expression.LambdaExpressionModel;
-import io.vertx.codetrans.MethodModel;
 import io.vertx.codetrans.RunnableCompilationUnit;
 import io.vertx.codetrans.statement.StatementModel;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
 class RubyCodeBuilder implements CodeBuilder {
 
+  /**
+   * The module declaring the hoisted string literals.
+   */
+  static final String LITERALS_MODULE = "CodetransLiterals";
+
   LinkedHashSet<ClassTypeInfo> imports = new LinkedHashSet<>();
   LinkedHashSet<String> requires = new LinkedHashSet<>();
+  private final boolean optimized;
+  private final Map<String, String> literals = new ConcurrentSkipListMap<>();
+
+  RubyCodeBuilder(boolean optimized) {
+    this.optimized = optimized;
+  }
 
   @Override
   public CodeWriter newWriter() {
     return new RubyWriter(this);
   }
 
+  /**
+   * Hoist a constant string literal of the unit being rendered to the {@link #LITERALS_MODULE} module, the constant
+   * name is a digest of the literal value so it does not depend on the rendering order and a constant defined by
+   * another script of the same runtime has the same value.
+   *
+   * @param value the literal value
+   * @return the qualified constant name or null when the literal is not hoisted
+   */
+  String literal(String value) {
+    if (!optimized) {
+      return null;
+    }
+    String name = "STR_" + digest(value);
+    String prev = literals.putIfAbsent(name, value);
+    return prev == null || prev.equals(value) ? LITERALS_MODULE + "::" + name : null;
+  }
+
+  private static String digest(String value) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder();
+      for (int i = 0;i < 8;i++) {
+        hex.append(Character.toUpperCase(Character.forDigit((digest[i] >> 4) & 0xF, 16)));
+        hex.append(Character.toUpperCase(Character.forDigit(digest[i] & 0xF, 16)));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+  }
+
   @Override
   public String render(RunnableCompilationUnit unit) {
+    literals.clear();
     CodeWriter writer = newWriter();
     for (ClassTypeInfo type : imports) {
       requires.add(type.getModuleName() + "/" + Case.SNAKE.format(Case.CAMEL.parse(type.getSimpleName())));
@@ -47,28 +93,58 @@ class RubyCodeBuilder implements CodeBuilder {
     for (String require : requires) {
       writer.append("require '").append(require).append("'\n");
     }
-    for (Map.Entry<String, StatementModel> field : unit.getFields().entrySet()) {
-      field.getValue().render(writer);
-      writer.append("\n");
+    if (optimized) {
+      // Render the body first to know the hoisted literals
+      CodeWriter body = newWriter();
+      renderBody(unit, body);
+      if (literals.size() > 0) {
+        // A pooled runtime runs the script again, a constant is defined once to not be reassigned
+        writer.append("module ").append(LITERALS_MODULE).append("\n");
+        writer.indent();
+        literals.forEach((name, value) -> {
+          writer.append(name).append(" = \"");
+          writer.renderChars(value);
+          writer.append("\".freeze unless const_defined?(:").append(name).append(", false)\n");
+        });
+        writer.unindent();
+        writer.append("end\n");
+      }
+      writer.append(body.getBuffer());
+    } else {
+      renderBody(unit, writer);
     }
-    for (Map.Entry<String, MethodModel> member : unit.getMethods().entrySet()) {
+    return writer.getBuffer().toString();
+  }
+
+  private void renderBody(RunnableCompilationUnit unit, CodeWriter writer) {
+    unit.renderFields(writer, (fieldWriter, field) -> {
+      field.getValue().render(fieldWriter);
+      fieldWriter.append("\n");
+    });
+    unit.renderMethods(writer, (memberWriter, member) -> {
       String methodName = Case.SNAKE.format(Case.CAMEL.parse(member.getKey()));
-      writer.append("def ").append(methodName).append("(");
+      memberWriter.append("def ").append(methodName).append("(");
       for (Iterator<String> it = member.getValue().getParameterNames().iterator();it.hasNext();) {
         String paramName = it.next();
-        writer.append(paramName);
+        memberWriter.append(paramName);
         if (it.hasNext()) {
-          writer.append(", ");
+          memberWriter.append(", ");
         }
       }
-      writer.append(")\n");
-      writer.indent();
-      member.getValue().render(writer);
-      writer.unindent();
-      writer.append("end\n");
-    }
+      memberWriter.append(")\n");
+      memberWriter.indent();
+      member.getValue().render(memberWriter);
+      memberWriter.unindent();
+      memberWriter.append("end\n");
+    });
     unit.getMain().render(writer);
-    return writer.getBuffer().toString();
+  }
+
+  @Override
+  public void include(CodeBuilder other) {
+    RubyCodeBuilder that = (RubyCodeBuilder) other;
+    imports.addAll(that.imports);
+    requires.addAll(that.requires);
   }
 
   @Override
@@ -159,6 +235,27 @@ class RubyCodeBuilder implements CodeBuilder {
     });
   }
 
+  @Override
+  public StatementModel sequenceForLoop(String variableName, TypeInfo variableType, ExpressionModel fromValue, ExpressionModel toValue, boolean closures, StatementModel body) {
+    if (!optimized || closures) {
+      // A block declared in the body must capture its own loop variable
+      return sequenceForLoop(variableName, fromValue, toValue, body);
+    }
+    return StatementModel.render(writer -> {
+      writer.append(variableName).append(" = ");
+      fromValue.render(writer);
+      writer.append('\n');
+      writer.append("while ").append(variableName).append(" < ");
+      toValue.render(writer);
+      writer.append('\n');
+      writer.indent();
+      body.render(writer);
+      writer.append(variableName).append(" += 1\n");
+      writer.unindent();
+      writer.append("end");
+    });
+  }
+
   @Override
   public ExpressionModel jsonArrayEncoder(ExpressionModel expression) {
     requires.add("json");
@@ -2,25 +2,53 @@ package io.vertx.codetrans.lang.ruby;
 
 import io.vertx.codetrans.Lang;
 import io.vertx.codetrans.Script;
+import io.vertx.codetrans.ScriptPool;
 import io.vertx.codetrans.CodeBuilder;
 import org.jruby.embed.LocalContextScope;
 import org.jruby.embed.ScriptingContainer;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
 public class RubyLang implements Lang {
 
+  private boolean optimized;
+
+  /**
+   * @return true when the optimized emission mode is used
+   */
+  public boolean isOptimized() {
+    return optimized;
+  }
+
+  /**
+   * Set the optimized emission mode: numeric sequences are iterated with {@code while} loops instead of a block
+   * called by a {@code Range} and the constant string literals are hoisted to frozen constants of a module, so
+   * they are allocated once per runtime.
+   *
+   * @param optimized true to use the optimized emission mode
+   * @return a reference to this, so the API can be used fluently
+   */
+  public RubyLang setOptimized(boolean optimized) {
+    this.optimized = optimized;
+    return this;
+  }
+
   @Override
   public CodeBuilder codeBuilder() {
-    return new RubyCodeBuilder();
+    return new RubyCodeBuilder(optimized);
   }
 
   @Override
   public Script loadScript(ClassLoader loader, String source) throws Exception {
-    ScriptingContainer container = new ScriptingContainer(LocalContextScope.SINGLETHREAD);
+    // A single threaded container has its own runtime and $globals, concurrent executions use other containers.
+    // The $globals of a container are set once, a callback running after its execution reads the globals it
+    // was given, so the containers are pooled by globals
+    Map<Map<String, Object>, ScriptPool<ScriptingContainer>> pools = new ConcurrentHashMap<>();
     return new Script() {
       @Override
       public String getSource() {
@@ -28,11 +56,23 @@ public class RubyLang implements Lang {
       }
 
       @Override
-      public void run(Map<String, Object> globals) {
-        for (Map.Entry<String, Object> global : globals.entrySet()) {
-          container.put("$" + global.getKey(), global.getValue());
+      public void run(Map<String, Object> globals) throws Exception {
+        Map<String, Object> key = new HashMap<>(globals);
+        ScriptPool<ScriptingContainer> containers = pools.get(key);
+        if (containers == null) {
+          containers = new ScriptPool<>(() -> {
+            ScriptingContainer container = new ScriptingContainer(LocalContextScope.SINGLETHREAD);
+            for (Map.Entry<String, Object> global : key.entrySet()) {
+              container.put("$" + global.getKey(), global.getValue());
+            }
+            return container;
+          }, ScriptPool.DEFAULT_MAX_SIZE);
+          ScriptPool<ScriptingContainer> prev = pools.putIfAbsent(key, containers);
+          if (prev != null) {
+            containers = prev;
+          }
         }
-        container.runScriptlet(source);
+        containers.execute(container -> container.runScriptlet(source));
       }
     };
   }
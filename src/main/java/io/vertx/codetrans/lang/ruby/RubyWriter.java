@@ -48,6 +48,16 @@ class RubyWriter extends CodeWriter {
     append(")");
   }
 
+  @Override
+  public void renderStringLiteral(String value) {
+    String constant = builder.literal(value);
+    if (constant != null) {
+      append(constant);
+    } else {
+      super.renderStringLiteral(value);
+    }
+  }
+
   @Override
   public void renderStringLiteral(List parts) {
     append('"');
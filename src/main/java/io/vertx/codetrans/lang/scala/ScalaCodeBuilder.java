@@ -15,13 +15,26 @@ import java.util.stream.IntStream;
 public class ScalaCodeBuilder implements CodeBuilder {
 
   private Set<String> imports = new HashSet<>();
-  private List<String> asyncResults = new ArrayList<>();
+  private final boolean optimized;
+
+  public ScalaCodeBuilder() {
+    this(false);
+  }
+
+  public ScalaCodeBuilder(boolean optimized) {
+    this.optimized = optimized;
+  }
 
   @Override
   public CodeWriter newWriter() {
     return new ScalaCodeWriter(this);
   }
 
+  @Override
+  public void include(CodeBuilder other) {
+    imports.addAll(((ScalaCodeBuilder) other).imports);
+  }
+
   @Override
   public ApiTypeModel apiType(ApiTypeInfo type) {
     imports.add(type.translateName("scala"));
@@ -53,7 +66,6 @@ public class ScalaCodeBuilder implements CodeBuilder {
     imports.add("scala.util.Success");
     return new ExpressionModel(this) {
       public void render(CodeWriter writer) {
-        asyncResults.add(s);
         writer.append("{\n");
         writer.indent();
         writer.append("case Success(result) => ");
@@ -61,7 +73,7 @@ public class ScalaCodeBuilder implements CodeBuilder {
 
         if (codeModel1 != null) {
           writer.append("{\n");
-          codeModel1.render(writer);
+          ((ScalaCodeWriter) writer).renderAsyncResultSuccess(s, codeModel1);
           writer.unindent();
           writer.append("}\n");
         } else {
@@ -105,6 +117,32 @@ public class ScalaCodeBuilder implements CodeBuilder {
     };
   }
 
+  @Override
+  public StatementModel enhancedForLoop(String variableName, TypeInfo variableType, ExpressionModel expression, TypeInfo expressionType, boolean closures, StatementModel body) {
+    if (!optimized || expressionType == null) {
+      return enhancedForLoop(variableName, expression, body);
+    }
+    String iterator = "_" + variableName + "_it";
+    return new StatementModel() {
+      public void render(CodeWriter renderer) {
+        // locally scopes the iterator without allocating a closure
+        renderer.append("locally {\n");
+        renderer.indent();
+        renderer.append("val ").append(iterator).append(" = ");
+        expression.render(renderer);
+        renderer.append(".iterator\n");
+        renderer.append("while (").append(iterator).append(".hasNext) {\n");
+        renderer.indent();
+        renderer.append("val ").append(variableName).append(" = ").append(iterator).append(".next()\n");
+        body.render(renderer);
+        renderer.unindent();
+        renderer.append("}\n");
+        renderer.unindent();
+        renderer.append("}\n");
+      }
+    };
+  }
+
   @Override
   public StatementModel forLoop(StatementModel initializer, ExpressionModel condition, ExpressionModel update, StatementModel body) {
     return new StatementModel() {
@@ -140,6 +178,32 @@ public class ScalaCodeBuilder implements CodeBuilder {
     };
   }
 
+  @Override
+  public StatementModel sequenceForLoop(String variableName, TypeInfo variableType, ExpressionModel fromValue, ExpressionModel toValue, boolean closures, StatementModel body) {
+    if (!optimized || closures) {
+      // A closure declared in the body must capture its own loop variable
+      return sequenceForLoop(variableName, fromValue, toValue, body);
+    }
+    return new StatementModel() {
+      public void render(CodeWriter renderer) {
+        renderer.append("locally {\n");
+        renderer.indent();
+        renderer.append("var ").append(variableName).append(" = ");
+        fromValue.render(renderer);
+        renderer.append("\nwhile (").append(variableName).append(" < ");
+        toValue.render(renderer);
+        renderer.append(") {\n");
+        renderer.indent();
+        body.render(renderer);
+        renderer.append(variableName).append(" += 1\n");
+        renderer.unindent();
+        renderer.append("}\n");
+        renderer.unindent();
+        renderer.append("}\n");
+      }
+    };
+  }
+
   @Override
   public ApiModel api(ExpressionModel expr) {
     return new ScalaApiModel(this, expr);
@@ -153,46 +217,26 @@ public class ScalaCodeBuilder implements CodeBuilder {
       writer.append("import ").append(importedType).append('\n');
     }
 
-    for (StatementModel value : unit.getFields().values()) {
-      value.render(writer);
-      writer.append("\n");
-    }
-    for (Map.Entry<String, MethodModel> method : unit.getMethods().entrySet()) {
-      writer.append("def ").append(method.getKey()).append("(");
+    unit.renderFields(writer, (fieldWriter, field) -> {
+      field.getValue().render(fieldWriter);
+      fieldWriter.append("\n");
+    });
+    unit.renderMethods(writer, (methodWriter, method) -> {
+      methodWriter.append("def ").append(method.getKey()).append("(");
 
       IntStream.range(0, method.getValue().getParameterNames().size()).forEach(i -> {
-        if (i > 0) writer.append(", ");
-        writer.append(method.getValue().getParameterNames().get(i));
-        writer.append(":");
-        writer.append(method.getValue().getSignature().getParameterTypes().get(i).getName());
+        if (i > 0) methodWriter.append(", ");
+        methodWriter.append(method.getValue().getParameterNames().get(i));
+        methodWriter.append(":");
+        methodWriter.append(method.getValue().getSignature().getParameterTypes().get(i).getName());
       });
-      writer.append(") = {\n");
-      writer.indent();
-      method.getValue().render(writer);
-      writer.unindent();
-      writer.append("}\n");
-    }
+      methodWriter.append(") = {\n");
+      methodWriter.indent();
+      method.getValue().render(methodWriter);
+      methodWriter.unindent();
+      methodWriter.append("}\n");
+    });
     unit.getMain().render(writer);
-
-    String ret = writer.getBuffer().toString();
-    //remove return statements
-    ret = ret.replace("return ","");
-    ret = convertLeftoverUsageOfAsyncResultMethods(ret);
-    ret = removeThisIfStringRepresentsAScript(ret);
-    return ret;
+    return writer.getBuffer().toString();
   }
-
-  private String removeThisIfStringRepresentsAScript(String ret) {
-    if (!ret.contains("class")){
-      return ret.replace("this.","");
-    }
-    return ret;
-  }
-
-  private String convertLeftoverUsageOfAsyncResultMethods(String ret) {
-    return asyncResults.stream()
-            .reduce(ret, (identity, value) -> identity.replace(value + ".result()", "result")
-                    .replace(value + ".succeeded()", "true"));
-  }
-
 }
@@ -10,7 +10,9 @@ import io.vertx.codetrans.expression.*;
 import io.vertx.codetrans.statement.StatementModel;
 
 import javax.lang.model.element.TypeElement;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.stream.IntStream;
 
@@ -19,11 +21,31 @@ import java.util.stream.IntStream;
  */
 public class ScalaCodeWriter extends CodeWriter {
 
+  /**
+   * The names of the async results whose value is bound to {@code result} by the enclosing {@code Success} case.
+   */
+  private final Deque<String> asyncResults = new ArrayDeque<>();
 
   public ScalaCodeWriter(CodeBuilder builder) {
     super(builder);
   }
 
+  /**
+   * Render the {@code Success} case body of an async result handler, {@code name.result()} and
+   * {@code name.succeeded()} are rendered as {@code result} and {@code true}.
+   *
+   * @param name the async result name
+   * @param body the success body
+   */
+  void renderAsyncResultSuccess(String name, CodeModel body) {
+    asyncResults.push(name);
+    try {
+      body.render(this);
+    } finally {
+      asyncResults.pop();
+    }
+  }
+
   private String capitalize(String string) {
     return string.substring(0,1).toUpperCase()+string.substring(1, string.length());
   }
@@ -108,11 +130,33 @@ public class ScalaCodeWriter extends CodeWriter {
 
   @Override
   public void renderMethodReference(ExpressionModel expressionModel, MethodSignature methodSignature){
-    expressionModel.render(this);
-    append('.');
+    if (!(expressionModel instanceof ThisModel)) {
+      expressionModel.render(this);
+      append('.');
+    }
     append(methodSignature.getName()).append(" _");
   }
 
+  @Override
+  public void renderMemberSelect(ExpressionModel expression, String identifier) {
+    // Scripts have no enclosing class, members are accessed directly
+    if (!(expression instanceof ThisModel)) {
+      expression.render(this);
+      append('.');
+    }
+    append(identifier);
+  }
+
+  @Override
+  public void renderReturn(ExpressionModel expression) {
+    // The value of a block is its last expression
+    if (expression != null) {
+      expression.render(this);
+    } else {
+      append("return");
+    }
+  }
+
   @Override
   public void renderApiType(ApiTypeInfo apiType){
     append(apiType.getSimpleName());
@@ -398,11 +442,25 @@ public class ScalaCodeWriter extends CodeWriter {
 
   @Override
   public void renderMethodInvocation(ExpressionModel expression, TypeInfo receiverType, MethodSignature method, TypeInfo returnType, List<ExpressionModel> argumentModels, List<TypeInfo> argumentTypes){
+    if (argumentModels.isEmpty() && expression instanceof IdentifierModel && asyncResults.contains(((IdentifierModel) expression).name)) {
+      if (method.getName().equals("result")) {
+        append("result");
+        return;
+      } else if (method.getName().equals("succeeded")) {
+        append("true");
+        return;
+      }
+    }
     String lbracket = (method.getName() == "onComplete") ? "" : "(";
     String rbracket = (method.getName() == "onComplete") ? "" : ")";
-    if(method.getName() != "onComplete")
-      expression.render(this);
-    append('.');
+    if(method.getName() != "onComplete") {
+      if (!(expression instanceof ThisModel)) {
+        expression.render(this);
+        append('.');
+      }
+    } else {
+      append('.');
+    }
     append(method.getName());
     append(lbracket);
 
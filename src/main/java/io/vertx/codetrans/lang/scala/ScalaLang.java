@@ -16,21 +16,47 @@ import java.util.Map;
 public class ScalaLang implements Lang {
 
   scala.Option<File> nopath = scala.Option.<File>empty();
+  private boolean optimized;
+
+  /**
+   * @return true when the optimized emission mode is used
+   */
+  public boolean isOptimized() {
+    return optimized;
+  }
+
+  /**
+   * Set the optimized emission mode: numeric sequences are lowered to {@code while} loops with a mutable counter
+   * instead of {@code Range.foreach}, collections are iterated with their iterator instead of {@code foreach}
+   * so Java collections need no implicit conversion.
+   *
+   * @param optimized true to use the optimized emission mode
+   * @return a reference to this, so the API can be used fluently
+   */
+  public ScalaLang setOptimized(boolean optimized) {
+    this.optimized = optimized;
+    return this;
+  }
 
   @Override
   public CodeBuilder codeBuilder() {
-    return new ScalaCodeBuilder();
+    return new ScalaCodeBuilder(optimized);
   }
 
   @Override
   public Script loadScript(ClassLoader loader, String source) throws Exception {
-
     return new Script() {
       @Override
       public String getSource() {
         return source;
       }
 
+      @Override
+      public boolean isCompiledOnRun() {
+        // The on the fly compiler evaluates the source, it does not hand out the compiled classes
+        return true;
+      }
+
       @Override
       public void run(Map<String, Object> globals) throws Exception {
         new OnTheFlyCompiler(nopath).eval(source);
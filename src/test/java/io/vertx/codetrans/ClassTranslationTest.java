@@ -0,0 +1,100 @@
+package io.vertx.codetrans;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class ClassTranslationTest extends ConversionTestBase {
+
+  @Before
+  public void before() {
+    VariableTest.o = null;
+  }
+
+  @Test
+  public void testTranslateClass() throws Exception {
+    List<Lang> langs = Arrays.asList(langs());
+    Map<String, Map<Lang, Result>> results = ConvertingProcessor.convertClass(ClassTranslationTest.class.getClassLoader(), langs, "variable/Variable.java", "variable.Variable");
+    Assert.assertEquals(Arrays.asList("declare", "globalExpression", "memberExpression", "uninitializedMemberExpression", "memberExpressionAccessedByMethod"), Arrays.asList(results.keySet().toArray()));
+    for (Map.Entry<String, Map<Lang, Result>> entry : results.entrySet()) {
+      Map<Lang, Result> expected = convert(langs, "variable/Variable", "variable.Variable", entry.getKey());
+      for (Lang lang : langs) {
+        Result result = entry.getValue().get(lang);
+        Assert.assertTrue(result instanceof Result.Source);
+        Assert.assertEquals(((Result.Source) expected.get(lang)).getValue(), ((Result.Source) result).getValue());
+      }
+    }
+  }
+
+  @Test
+  public void testPerMethodImports() throws Exception {
+    List<Lang> langs = Arrays.asList(langs());
+    Map<String, Map<Lang, Result>> results = ConvertingProcessor.convertClass(ClassTranslationTest.class.getClassLoader(), langs, "classtrans/Imports.java", "classtrans.Imports");
+    Assert.assertEquals(Arrays.asList("enumConstant", "noImport", "helperEnumConstant"), Arrays.asList(results.keySet().toArray()));
+    for (Map.Entry<String, Map<Lang, Result>> entry : results.entrySet()) {
+      Map<Lang, Result> expected = convert(langs, "classtrans/Imports", "classtrans.Imports", entry.getKey());
+      for (Lang lang : langs) {
+        Result result = entry.getValue().get(lang);
+        Assert.assertTrue(result instanceof Result.Source);
+        Assert.assertEquals(((Result.Source) expected.get(lang)).getValue(), ((Result.Source) result).getValue());
+      }
+    }
+    Lang groovy = langs.get(0);
+    Assert.assertFalse(((Result.Source) results.get("noImport").get(groovy)).getValue().contains("import io.vertx.support.TheEnum"));
+    Assert.assertTrue(((Result.Source) results.get("helperEnumConstant").get(groovy)).getValue().contains("import io.vertx.support.TheEnum"));
+  }
+
+  @Test
+  public void testRunSharedHelper() throws Exception {
+    List<Lang> langs = Arrays.asList(langs());
+    Map<String, Map<Lang, Result>> results = ConvertingProcessor.convertClass(ClassTranslationTest.class.getClassLoader(), langs, "variable/Variable.java", "variable.Variable");
+    for (String method : Arrays.asList("memberExpression", "memberExpressionAccessedByMethod")) {
+      for (Lang lang : langs) {
+        String source = ((Result.Source) results.get(method).get(lang)).getValue();
+        lang.loadScript(Thread.currentThread().getContextClassLoader(), source).run();
+        Assert.assertEquals("member_value", VariableTest.o);
+        VariableTest.o = null;
+      }
+    }
+  }
+
+  @Test
+  public void testParallelRendering() throws Exception {
+    List<Lang> langs = Arrays.asList(langs());
+    ClassLoader loader = ClassTranslationTest.class.getClassLoader();
+    Map<String, Map<Lang, Result>> expected = ConvertingProcessor.convertClass(loader, langs, "variable/Variable.java", "variable.Variable");
+    Map<String, Map<Lang, Result>> results = ConvertingProcessor.convertClass(loader, langs, "variable/Variable.java", "variable.Variable", new TranslationOptions().setParallelRendering(true));
+    for (Map.Entry<String, Map<Lang, Result>> entry : results.entrySet()) {
+      for (Lang lang : langs) {
+        Assert.assertEquals(((Result.Source) expected.get(entry.getKey()).get(lang)).getValue(), ((Result.Source) entry.getValue().get(lang)).getValue());
+      }
+    }
+  }
+
+  @Test
+  public void testOverloadedMethods() throws Exception {
+    List<Lang> langs = Arrays.asList(langs());
+    Map<String, Map<Lang, Result>> results = ConvertingProcessor.convertClassSource(ClassTranslationTest.class.getClassLoader(), langs,
+        "package overload;\n" +
+        "public class Overload {\n" +
+        "  @io.vertx.codetrans.annotations.CodeTranslate public void start() { String s = \"a\"; }\n" +
+        "  @io.vertx.codetrans.annotations.CodeTranslate public void m() { String s = \"a\"; }\n" +
+        "  @io.vertx.codetrans.annotations.CodeTranslate public void m(int i) { String s = \"b\"; }\n" +
+        "}\n", "overload.Overload");
+    Assert.assertEquals(new HashSet<>(Arrays.asList("start", "m")), results.keySet());
+    for (Lang lang : langs) {
+      Assert.assertTrue(results.get("start").get(lang) instanceof Result.Source);
+      Result result = results.get("m").get(lang);
+      Assert.assertTrue(result instanceof Result.Failure);
+      Assert.assertEquals("Overloaded method m", ((Result.Failure) result).getCause().getMessage());
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package io.vertx.codetrans;
+
+import io.vertx.codetrans.lang.groovy.GroovyLang;
+import io.vertx.codetrans.lang.js.JavaScriptLang;
+import org.junit.Test;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class CodeTranslateProcessorTest {
+
+  @Test
+  public void testTranslateCompilation() throws Exception {
+    File output = Files.createTempDirectory("codetrans").toFile();
+    File source = new File(CodeTranslateProcessorTest.class.getClassLoader().getResource("module/Module.java").toURI());
+    JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    StandardJavaFileManager manager = javac.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+    JavaCompiler.CompilationTask task = javac.getTask(null, manager, null,
+        Arrays.asList("-d", output.getAbsolutePath(), "-A" + CodeTranslateProcessor.LANGS_OPTION + "=groovy,js"),
+        null,
+        manager.getJavaFileObjects(source));
+    task.setProcessors(Collections.<Processor>singletonList(new CodeTranslateProcessor()));
+    assertTrue(task.call());
+    assertEquals(((Result.Source) ConversionTestBase.convert(new GroovyLang(), "module/Module", "module.Module", "start")).getValue(),
+        read(new File(output, "module/Module.groovy")));
+    assertEquals(((Result.Source) ConversionTestBase.convert(new JavaScriptLang(), "module/Module", "module.Module", "start")).getValue(),
+        read(new File(output, "module/Module.js")));
+    assertFalse(new File(output, "module/Module.rb").exists());
+  }
+
+  @Test
+  public void testIsolating() throws Exception {
+    File output = Files.createTempDirectory("codetrans").toFile();
+    File module = source("module/Module.java");
+    File bufferLength = source("module/BufferLength.java");
+    assertTrue(compile(output, new DiagnosticCollector<>(), module, bufferLength));
+    String moduleTranslation = read(new File(output, "module/Module.groovy"));
+    String bufferLengthTranslation = read(new File(output, "module/BufferLength.groovy"));
+    // An incremental build deletes the resources originating from the changed source and recompiles only this source
+    assertTrue(new File(output, "module/Module.groovy").delete());
+    assertTrue(compile(output, new DiagnosticCollector<>(), module));
+    assertEquals(moduleTranslation, read(new File(output, "module/Module.groovy")));
+    assertEquals(bufferLengthTranslation, read(new File(output, "module/BufferLength.groovy")));
+  }
+
+  @Test
+  public void testOverloadedMethods() throws Exception {
+    File output = Files.createTempDirectory("codetrans").toFile();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    assertTrue(compile(output, diagnostics, new SourceFileObject("overload.Overload",
+        "package overload;\n" +
+        "public class Overload {\n" +
+        "  @io.vertx.codetrans.annotations.CodeTranslate public void start() { String s = \"a\"; }\n" +
+        "  @io.vertx.codetrans.annotations.CodeTranslate public void m() { String s = \"a\"; }\n" +
+        "  @io.vertx.codetrans.annotations.CodeTranslate public void m(int i) { String s = \"b\"; }\n" +
+        "}\n")));
+    assertTrue(new File(output, "overload/Overload.groovy").exists());
+    assertFalse(new File(output, "overload/Overload_m.groovy").exists());
+    assertEquals(2, warnings(diagnostics, "overloaded method m"));
+  }
+
+  @Test
+  public void testAlreadyWritten() throws Exception {
+    File output = Files.createTempDirectory("codetrans").toFile();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    // Both classes translate a method to clash/Foo_bar.groovy
+    assertTrue(compile(output, diagnostics,
+        new SourceFileObject("clash.Foo", "package clash;\npublic class Foo {\n" +
+            "  @io.vertx.codetrans.annotations.CodeTranslate public void bar() { String s = \"a\"; }\n}\n"),
+        new SourceFileObject("clash.Foo_bar", "package clash;\npublic class Foo_bar {\n" +
+            "  @io.vertx.codetrans.annotations.CodeTranslate public void start() { String s = \"b\"; }\n}\n")));
+    assertTrue(new File(output, "clash/Foo_bar.groovy").exists());
+    assertEquals(1, warnings(diagnostics, "Could not write Foo_bar.groovy"));
+  }
+
+  @Test
+  public void testWrappedEnvironment() throws Exception {
+    File output = Files.createTempDirectory("codetrans").toFile();
+    CodeTranslateProcessor processor = new CodeTranslateProcessor() {
+      @Override
+      public synchronized void init(ProcessingEnvironment processingEnv) {
+        // Wraps the environment like Gradle does for an isolating processor
+        super.init(new WrappedEnvironment(processingEnv));
+      }
+    };
+    assertTrue(compile(output, new DiagnosticCollector<>(), processor, manager -> manager.getJavaFileObjects(source("module/Module.java"))));
+    assertTrue(new File(output, "module/Module.groovy").exists());
+  }
+
+  @Test
+  public void testUnknownEnvironment() throws Exception {
+    File output = Files.createTempDirectory("codetrans").toFile();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    CodeTranslateProcessor processor = new CodeTranslateProcessor() {
+      @Override
+      public synchronized void init(ProcessingEnvironment processingEnv) {
+        Messager messager = processingEnv.getMessager();
+        Map<String, String> options = processingEnv.getOptions();
+        // An environment not delegating to javac
+        super.init(new WrappedEnvironment(null) {
+          @Override
+          public Messager getMessager() {
+            return messager;
+          }
+          @Override
+          public Map<String, String> getOptions() {
+            return options;
+          }
+        });
+      }
+    };
+    assertFalse(compile(output, diagnostics, processor, manager -> manager.getJavaFileObjects(source("module/Module.java"))));
+    assertTrue(diagnostics.getDiagnostics().stream().anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR));
+    assertFalse(new File(output, "module/Module.groovy").exists());
+  }
+
+  @Test
+  public void testLangs() {
+    assertEquals(Arrays.asList("groovy", "js"), CodeTranslateProcessor.langs("js, groovy").stream().map(Lang::getExtension).collect(Collectors.toList()));
+    try {
+      CodeTranslateProcessor.langs("groovy,cobol");
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  private static class WrappedEnvironment implements ProcessingEnvironment {
+
+    private final ProcessingEnvironment delegate;
+
+    WrappedEnvironment(ProcessingEnvironment delegate) {
+      this.delegate = delegate;
+    }
+
+    public Map<String, String> getOptions() { return delegate.getOptions(); }
+    public Messager getMessager() { return delegate.getMessager(); }
+    public Filer getFiler() { return delegate.getFiler(); }
+    public Elements getElementUtils() { return delegate.getElementUtils(); }
+    public Types getTypeUtils() { return delegate.getTypeUtils(); }
+    public SourceVersion getSourceVersion() { return delegate.getSourceVersion(); }
+    public Locale getLocale() { return delegate.getLocale(); }
+  }
+
+  private static File source(String path) throws Exception {
+    return new File(CodeTranslateProcessorTest.class.getClassLoader().getResource(path).toURI());
+  }
+
+  private static boolean compile(File output, DiagnosticCollector<JavaFileObject> diagnostics, File... sources) throws Exception {
+    return compile(output, diagnostics, manager -> manager.getJavaFileObjects(sources));
+  }
+
+  private static boolean compile(File output, DiagnosticCollector<JavaFileObject> diagnostics, JavaFileObject... sources) throws Exception {
+    return compile(output, diagnostics, manager -> Arrays.asList(sources));
+  }
+
+  private static boolean compile(File output, DiagnosticCollector<JavaFileObject> diagnostics, Function<StandardJavaFileManager, Iterable<? extends JavaFileObject>> sources) throws Exception {
+    return compile(output, diagnostics, new CodeTranslateProcessor(), sources);
+  }
+
+  private static boolean compile(File output, DiagnosticCollector<JavaFileObject> diagnostics, Processor processor, Function<StandardJavaFileManager, Iterable<? extends JavaFileObject>> sources) throws Exception {
+    JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager manager = javac.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+      JavaCompiler.CompilationTask task = javac.getTask(null, manager, diagnostics,
+          Arrays.asList("-d", output.getAbsolutePath(), "-A" + CodeTranslateProcessor.LANGS_OPTION + "=groovy"),
+          null,
+          sources.apply(manager));
+      task.setProcessors(Collections.singletonList(processor));
+      return task.call();
+    }
+  }
+
+  private static long warnings(DiagnosticCollector<JavaFileObject> diagnostics, String message) {
+    return diagnostics.getDiagnostics().stream()
+        .filter(d -> d.getKind() == Diagnostic.Kind.MANDATORY_WARNING && d.getMessage(null).contains(message))
+        .count();
+  }
+
+  private static String read(File file) throws Exception {
+    assertTrue("Missing " + file, file.exists());
+    return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+  }
+}
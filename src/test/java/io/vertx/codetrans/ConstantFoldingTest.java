@@ -0,0 +1,64 @@
+package io.vertx.codetrans;
+
+import io.vertx.codetrans.lang.groovy.GroovyLang;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class ConstantFoldingTest extends ConversionTestBase {
+
+  public static String string;
+  public static Number number;
+
+  @Before
+  public void before() {
+    string = null;
+    number = null;
+  }
+
+  private void runFolded(String method, String expected, Runnable after) throws Exception {
+    Map<Lang, Result> results = ConvertingProcessor.convert(ConstantFoldingTest.class.getClassLoader(), Arrays.asList(langs()),
+        "expression/ConstantFolding.java", "expression.ConstantFolding", method, new TranslationOptions().setConstantFolding(true));
+    for (Map.Entry<Lang, Result> entry : results.entrySet()) {
+      String source = ((Result.Source) entry.getValue()).getValue();
+      assertTrue(source, source.contains(expected));
+      assertFalse(source, source.contains("PREFIX"));
+      before();
+      entry.getKey().loadScript(ConstantFoldingTest.class.getClassLoader(), source).run();
+      after.run();
+    }
+  }
+
+  @Test
+  public void testConcat() throws Exception {
+    runFolded("concat", "ab1", () -> assertEquals("ab1", string));
+  }
+
+  @Test
+  public void testPrefix() throws Exception {
+    runFolded("prefix", "prefix_value", () -> assertEquals("prefix_value", string));
+  }
+
+  @Test
+  public void testMultiply() throws Exception {
+    runFolded("multiply", "60000", () -> assertEquals(60000, number.intValue()));
+  }
+
+  @Test
+  public void testDivide() throws Exception {
+    runFolded("divide", "3", () -> assertEquals(3, number.intValue()));
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    String source = ((Result.Source) convert(new GroovyLang(), "expression/ConstantFolding", "multiply")).getValue();
+    assertTrue(source.contains("60 * 1000"));
+  }
+}
@@ -1,5 +1,6 @@
 package io.vertx.codetrans;
 
+import io.vertx.codetrans.lang.js.JavaScriptLang;
 import io.vertx.codetrans.lang.scala.ScalaLang;
 import org.junit.Assert;
 import org.junit.Before;
@@ -28,6 +29,8 @@ public class ControlTest extends ConversionTestBase {
   @Before
   public void before() {
     o = null;
+    collected.clear();
+    deferred.clear();
   }
 
   @Test
@@ -87,12 +90,18 @@ public class ControlTest extends ConversionTestBase {
   }
 
   public static List<String> list = Collections.unmodifiableList(Arrays.asList("foo", "bar", "juu"));
-  private static List<String> collected = new ArrayList<>();
+  public static String[] array = { "foo", "bar", "juu" };
+  static List<String> collected = new ArrayList<>();
+  private static List<Runnable> deferred = new ArrayList<>();
 
   public static void invoke(String s) {
     collected.add(s);
   }
 
+  public static void defer(Runnable runnable) {
+    deferred.add(runnable);
+  }
+
 
   @Test
   public void testForEach() throws Exception {
@@ -102,6 +111,42 @@ public class ControlTest extends ConversionTestBase {
     });
   }
 
+  @Test
+  public void testForEachFastJavaScript() throws Exception {
+    JavaScriptLang lang = new JavaScriptLang().setFast(true);
+    String source = ((Result.Source) convert(lang, "control/ForEach", "start")).getValue();
+    Assert.assertFalse(source.contains("forEach"));
+    run(lang, "control/ForEach", "start");
+    Assert.assertEquals(list, collected);
+  }
+
+  @Test
+  public void testForEachArray() throws Exception {
+    runAllExcept("control/ForEachArray", ScalaLang.class, () -> {
+      Assert.assertEquals(list, collected);
+      collected.clear();
+    });
+  }
+
+  @Test
+  public void testForEachArrayFastJavaScript() throws Exception {
+    JavaScriptLang lang = new JavaScriptLang().setFast(true);
+    String source = ((Result.Source) convert(lang, "control/ForEachArray", "start")).getValue();
+    Assert.assertFalse(source.contains("forEach"));
+    run(lang, "control/ForEachArray", "start");
+    Assert.assertEquals(list, collected);
+  }
+
+  @Test
+  public void testForEachClosureFastJavaScript() throws Exception {
+    JavaScriptLang lang = new JavaScriptLang().setFast(true);
+    String source = ((Result.Source) convert(lang, "control/ForEachClosure", "start")).getValue();
+    Assert.assertTrue(source.contains("forEach"));
+    run(lang, "control/ForEachClosure", "start");
+    deferred.forEach(Runnable::run);
+    Assert.assertEquals(list, collected);
+  }
+
   @Test
   public void testForLoop() throws Exception {
     runAll("control/ForLoop", () -> {
@@ -8,47 +8,106 @@ import io.vertx.codetrans.lang.scala.ScalaLang;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import jdk.nashorn.api.scripting.ScriptObjectMirror;
+import org.junit.ClassRule;
+import org.junit.rules.TestRule;
+import org.junit.runners.model.Statement;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
+ * The base of the conversion tests: a fixture is compiled once per test class and its translations are shared by
+ * the tests of the class. Each test class has its own langs and translations, so test classes do not depend on
+ * each other. The scripts are loaded and run sequentially on the test thread, the fixtures report through static
+ * fields of the test classes (e.g {@code ControlTest.collected}) so two scripts cannot run at the same time.
+ *
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
 public abstract class ConversionTestBase {
 
-  public static Lang[] langs() { return new Lang[] { new GroovyLang(), new JavaScriptLang(), new KotlinLang(), new RubyLang(), new ScalaLang() }; }
+  /**
+   * The langs and the translations of the test class being run.
+   */
+  private static class Fixtures {
+
+    final Lang groovy = new GroovyLang();
+    final Lang javaScript = new JavaScriptLang();
+    final Lang kotlin = new KotlinLang();
+    final Lang ruby = new RubyLang();
+    final Lang scala = new ScalaLang();
+
+    /**
+     * The translations of the fixtures by lang: a fixture is compiled once for all its methods.
+     */
+    final Map<String, Map<Lang, Map<String, Result>>> translations = new HashMap<>();
+  }
+
+  // Inherited by the thread running a test with a timeout
+  private static final InheritableThreadLocal<Fixtures> current = new InheritableThreadLocal<>();
+
+  @ClassRule
+  public static final TestRule fixtures = (base, description) -> new Statement() {
+    @Override
+    public void evaluate() throws Throwable {
+      current.set(new Fixtures());
+      try {
+        base.evaluate();
+      } finally {
+        current.remove();
+      }
+    }
+  };
+
+  /**
+   * @return the langs of the test class, new langs when called outside of a conversion test
+   */
+  public static Lang[] langs() {
+    Fixtures fixtures = current.get();
+    if (fixtures == null) {
+      return new Lang[] { new GroovyLang(), new JavaScriptLang(), new KotlinLang(), new RubyLang(), new ScalaLang() };
+    }
+    return new Lang[] { fixtures.groovy, fixtures.javaScript, fixtures.kotlin, fixtures.ruby, fixtures.scala };
+  }
+
+  private static Lang lang(Class<? extends Lang> type) {
+    for (Lang lang : langs()) {
+      if (type.isInstance(lang)) {
+        return lang;
+      }
+    }
+    throw new AssertionError();
+  }
 
   public void runJavaScript(String path) {
-    run(new JavaScriptLang(), path);
+    run(lang(JavaScriptLang.class), path);
   }
 
   public void runJavaScript(String path, String method) {
-    run(new JavaScriptLang(), path, method);
+    run(lang(JavaScriptLang.class), path, method);
   }
 
   public void runGroovy(String path) {
-    run(new GroovyLang(), path);
+    run(lang(GroovyLang.class), path);
   }
 
   public void runGroovy(String path, String method) {
-    run(new GroovyLang(), path, method);
+    run(lang(GroovyLang.class), path, method);
   }
 
   public void runRuby(String path) {
-    run(new RubyLang(), path);
+    run(lang(RubyLang.class), path);
   }
 
   public void runRuby(String path, String method) {
-    run(new RubyLang(), path, method);
+    run(lang(RubyLang.class), path, method);
   }
 
   public void runScala(String path) {
-    run(new ScalaLang(), path);
+    run(lang(ScalaLang.class), path);
   }
 
   public void runScala(String path, String method) {
-    run(new ScalaLang(), path, method);
+    run(lang(ScalaLang.class), path, method);
   }
 
   public void runAllExcept(String path, Class clazz, Runnable after) {
@@ -56,11 +115,11 @@ public abstract class ConversionTestBase {
   }
 
   public void runKotlin(String path) {
-    run(new KotlinLang(), path);
+    run(lang(KotlinLang.class), path);
   }
 
   public void runKotlin(String path, String method) {
-    run(new KotlinLang(), path, method);
+    run(lang(KotlinLang.class), path, method);
   }
 
   public void runAll(String path, Runnable after) {
@@ -111,12 +170,46 @@ public abstract class ConversionTestBase {
     return convert(Collections.singletonList(lang), path, fqn, method).get(lang);
   }
 
-  public static Map<Lang, Result> convert(List<Lang> lang, String path, String fqn, String method) {
-    try {
-      return ConvertingProcessor.convert(ClassIdentifierExpressionTest.class.getClassLoader(), lang, path + ".java", fqn, method);
-    } catch (Exception e) {
-      throw new AssertionError(e);
+  public static Map<Lang, Result> convert(List<Lang> langs, String path, String fqn, String method) {
+    Fixtures fixtures = current.get();
+    if (fixtures == null) {
+      try {
+        return ConvertingProcessor.convert(ClassIdentifierExpressionTest.class.getClassLoader(), langs, path + ".java", fqn, method);
+      } catch (Exception e) {
+        throw new AssertionError(e);
+      }
     }
+    Map<String, Result>[] translated;
+    synchronized (fixtures) {
+      Map<Lang, Map<String, Result>> fixture = fixtures.translations.computeIfAbsent(path + ":" + fqn, k -> new HashMap<>());
+      List<Lang> missing = langs.stream().filter(lang -> !fixture.containsKey(lang)).collect(Collectors.toList());
+      if (missing.size() > 0) {
+        Map<String, Map<Lang, Result>> results;
+        try {
+          results = ConvertingProcessor.convertMethods(ClassIdentifierExpressionTest.class.getClassLoader(), missing, path + ".java", fqn, new TranslationOptions());
+        } catch (Exception e) {
+          throw new AssertionError(e);
+        }
+        for (Lang lang : missing) {
+          Map<String, Result> methods = new HashMap<>();
+          results.forEach((name, result) -> {
+            if (result.containsKey(lang)) {
+              methods.put(name, result.get(lang));
+            }
+          });
+          fixture.put(lang, methods);
+        }
+      }
+      translated = langs.stream().map(fixture::get).toArray(Map[]::new);
+    }
+    Map<Lang, Result> results = new LinkedHashMap<>();
+    for (int i = 0;i < translated.length;i++) {
+      Result result = translated[i].get(method);
+      if (result != null) {
+        results.put(langs.get(i), result);
+      }
+    }
+    return results;
   }
 
   public static Script script(Lang lang, String path, String method) {
@@ -125,21 +218,16 @@ public abstract class ConversionTestBase {
 
   public static Map<Lang, Script> script(List<Lang> langs, String path, String method) {
     Map<Lang, Result> results = convert(langs, path, path.replace('/', '.'), method);
-    Thread current = Thread.currentThread();
-    ClassLoader prev = current.getContextClassLoader();
-    current.setContextClassLoader(current.getContextClassLoader());
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
     Map<Lang, Script> scripts = new LinkedHashMap<>();
     results.forEach((lang, result) -> {
       try {
         if (result instanceof Result.Failure) {
           throw ((Result.Failure) result).getCause();
         }
-        Script script = lang.loadScript(current.getContextClassLoader(), ((Result.Source) result).getValue());
-        scripts.put(lang, script);
+        scripts.put(lang, lang.loadScript(loader, ((Result.Source) result).getValue()));
       } catch (Throwable e) {
         throw new AssertionError(e);
-      } finally {
-        current.setContextClassLoader(prev);
       }
     });
     return scripts;
@@ -0,0 +1,54 @@
+package io.vertx.codetrans;
+
+import io.vertx.codetrans.lang.groovy.GroovyLang;
+import io.vertx.codetrans.lang.js.JavaScriptLang;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class ExecutionHarnessTest {
+
+  @Test
+  public void testMeasure() throws Exception {
+    ExecutionHarness harness = new ExecutionHarness(5, 10);
+    List<ExecutionHarness.Measure> measures = harness.measure(ExecutionHarnessTest.class.getClassLoader(),
+        Arrays.asList(new GroovyLang(), new JavaScriptLang()), "control/ForLoop.java", "control.ForLoop", "start", Collections.emptyMap());
+    ControlTest.collected.clear();
+    assertEquals(3, measures.size());
+    assertEquals("java", measures.get(0).getName());
+    assertEquals("groovy", measures.get(1).getName());
+    assertEquals("js", measures.get(2).getName());
+    for (ExecutionHarness.Measure measure : measures) {
+      assertNull(measure.getFailure());
+      assertEquals(10, measure.getIterations());
+      assertTrue(measure.getMeanTime() > 0);
+      assertTrue(measure.getMinTime() <= measure.getMeanTime());
+      assertFalse(measure.isCompiledOnRun());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoIterations() {
+    new ExecutionHarness(5, 0);
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    ExecutionHarness harness = new ExecutionHarness(0, 1);
+    List<ExecutionHarness.Measure> measures = harness.measure(ExecutionHarnessTest.class.getClassLoader(),
+        Collections.singletonList(new GroovyLang()), "throwable/Throwable.java", "throwable.Throwable", "throwRuntimeExceptionNoArg", Collections.emptyMap());
+    assertEquals(2, measures.size());
+    assertEquals("java", measures.get(0).getName());
+    assertEquals("groovy", measures.get(1).getName());
+    for (ExecutionHarness.Measure measure : measures) {
+      assertNotNull(measure.getFailure());
+    }
+  }
+}
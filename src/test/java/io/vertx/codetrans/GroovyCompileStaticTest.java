@@ -0,0 +1,87 @@
+package io.vertx.codetrans;
+
+import io.vertx.codetrans.lang.groovy.GroovyLang;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class GroovyCompileStaticTest extends ConversionTestBase {
+
+  private GroovyLang lang;
+
+  @Before
+  public void before() {
+    lang = new GroovyLang().setCompileStatic(true);
+    ControlTest.o = null;
+    ControlTest.collected.clear();
+    VariableTest.o = null;
+    JsonTest.o = null;
+  }
+
+  private String source(String path, String method) {
+    return ((Result.Source) convert(lang, path, method)).getValue();
+  }
+
+  @Test
+  public void testForEach() throws Exception {
+    String source = source("control/ForEach", "start");
+    assertTrue(source.contains("@CompileStatic"));
+    assertTrue(source.contains("for (java.lang.String s : "));
+    run(lang, "control/ForEach");
+    assertEquals(ControlTest.list, ControlTest.collected);
+  }
+
+  @Test
+  public void testForSequence() throws Exception {
+    assertTrue(source("control/ForSequence", "start").contains("for (int i = 0;i < 10;i++)"));
+    run(lang, "control/ForSequence");
+    assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), ControlTest.collected);
+  }
+
+  @Test
+  public void testForLoop() throws Exception {
+    run(lang, "control/ForLoop");
+    assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), ControlTest.collected);
+  }
+
+  @Test
+  public void testTypedMethod() throws Exception {
+    assertTrue(source("control/Return", "returnValue").contains("java.lang.String returningValue()"));
+    run(lang, "control/Return", "returnValue");
+    assertEquals("the_returned_value", ControlTest.o);
+  }
+
+  @Test
+  public void testTypedField() throws Exception {
+    run(lang, "variable/Variable", "memberExpressionAccessedByMethod");
+    assertEquals("member_value", VariableTest.o);
+  }
+
+  @Test
+  public void testTypedGlobal() throws Exception {
+    assertTrue(source("variable/Variable", "globalExpression").contains("io.vertx.core.Vertx getVertx()"));
+  }
+
+  @Test
+  public void testTypedJsonObject() throws Exception {
+    String source = source("json/JsTyped", "getStringFromParameter");
+    assertTrue(source.contains("java.lang.String foo(java.util.Map<java.lang.String, java.lang.Object> obj)"));
+    assertTrue(source.contains("java.lang.String s = ((java.lang.String) obj.foo)"));
+    run(lang, "json/JsTyped", "getStringFromParameter");
+    assertEquals("foo_value", JsonTest.o);
+  }
+
+  @Test
+  public void testTypedJsonArray() throws Exception {
+    String source = source("json/JsTyped", "getStringFromArrayParameter");
+    assertTrue(source.contains("java.lang.String first(java.util.List<java.lang.Object> arr)"));
+    run(lang, "json/JsTyped", "getStringFromArrayParameter");
+    assertEquals("foo_value", JsonTest.o);
+  }
+}
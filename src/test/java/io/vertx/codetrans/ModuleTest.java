@@ -1,8 +1,11 @@
 package io.vertx.codetrans;
 
+import io.vertx.codetrans.lang.js.JavaScriptLang;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
@@ -10,6 +13,7 @@ public class ModuleTest extends ConversionTestBase {
 
   public static Object buffer;
   public static Object toString;
+  public static Object length;
 
   @Test
   public void testGroovyModule() throws Throwable {
@@ -31,4 +35,23 @@ public class ModuleTest extends ConversionTestBase {
     Assert.assertNotNull(buffer);
     Assert.assertEquals("the_buffer", toString);
   }
+
+  @Test
+  public void testJavaScriptBundle() throws Throwable {
+    JavaScriptLang lang = new JavaScriptLang();
+    Result result = ConvertingProcessor.convertBundle(ModuleTest.class.getClassLoader(), lang,
+        Arrays.asList("module/Module.java", "module/BufferLength.java"), new TranslationOptions());
+    String bundle = ((Result.Source) result).getValue();
+    Assert.assertEquals(bundle.indexOf("require(\"vertx-js/buffer\")"), bundle.lastIndexOf("require(\"vertx-js/buffer\")"));
+    Assert.assertTrue(bundle.contains("exports[\"module.Module.start\"] = function() {"));
+    Assert.assertTrue(bundle.contains("exports[\"module.BufferLength.start\"] = function() {"));
+    buffer = null;
+    toString = null;
+    length = null;
+    lang.loadScript(ModuleTest.class.getClassLoader(), "var exports = {};\n" + bundle +
+        "exports[\"module.Module.start\"]();\nexports[\"module.BufferLength.start\"]();\n").run();
+    Assert.assertNotNull(buffer);
+    Assert.assertEquals("the_buffer", toString);
+    Assert.assertEquals(10, ((Number) length).intValue());
+  }
 }
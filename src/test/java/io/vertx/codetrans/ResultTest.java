@@ -1,8 +1,17 @@
 package io.vertx.codetrans;
 
+import com.sun.source.tree.Tree;
 import io.vertx.codetrans.lang.groovy.GroovyLang;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import static org.junit.Assert.*;
 
 /**
@@ -21,5 +30,58 @@ public class ResultTest extends ConversionTestBase {
     Result result = convert(new GroovyLang(), "result/TestResult", "unsupportedResult");
     Result.Failure failure = (Result.Failure) result;
     assertTrue(failure.getCause() instanceof UnsupportedOperationException);
+    TranslationDiagnostic diagnostic = failure.getDiagnostic();
+    assertNotNull(diagnostic);
+    assertTrue(diagnostic.getSource().endsWith("TestResult.java"));
+    assertEquals(17, diagnostic.getLine());
+    assertEquals(5, diagnostic.getColumn());
+    assertEquals(Tree.Kind.FOR_LOOP, diagnostic.getKind());
+    assertEquals("groovy", diagnostic.getLang());
+    assertEquals("result.TestResult.unsupportedResult", diagnostic.getMethod());
+  }
+
+  @Test
+  public void testBatch() throws Exception {
+    GroovyLang lang = new GroovyLang();
+    List<ConvertingProcessor.Translation> translations = new ArrayList<>();
+    ConvertingProcessor.convertBatch(ResultTest.class.getClassLoader(), Collections.singletonList(lang),
+        Arrays.asList("result/Missing.java", "result/NotCompiling.java", "result/TestResult.java"), new TranslationOptions(), translations::add);
+    assertEquals(4, translations.size());
+    ConvertingProcessor.Translation missing = translations.get(0);
+    assertEquals("result/Missing.java", missing.getSource());
+    assertNull(missing.getMethod());
+    assertTrue(missing.getResult() instanceof Result.Failure);
+    // The translations of a source that does not compile are replaced by its compilation failure
+    List<ConvertingProcessor.Translation> notCompilingTranslations = translations.stream()
+        .filter(translation -> translation.getSource().equals("result/NotCompiling.java"))
+        .collect(Collectors.toList());
+    assertEquals(1, notCompilingTranslations.size());
+    ConvertingProcessor.Translation notCompiling = notCompilingTranslations.get(0);
+    assertNull(notCompiling.getMethod());
+    TranslationDiagnostic diagnostic = ((Result.Failure) notCompiling.getResult()).getDiagnostic();
+    assertEquals(12, diagnostic.getLine());
+    assertNull(diagnostic.getKind());
+    Map<String, Result> results = new HashMap<>();
+    translations.stream().filter(translation -> translation.getSource().equals("result/TestResult.java")).forEach(translation -> {
+      results.put(translation.getMethod(), translation.getResult());
+    });
+    assertEquals(2, results.size());
+    assertTrue(results.get("result.TestResult.sourceResult") instanceof Result.Source);
+    assertEquals(Tree.Kind.FOR_LOOP, ((Result.Failure) results.get("result.TestResult.unsupportedResult")).getDiagnostic().getKind());
+  }
+
+  @Test
+  public void testSourceFromMemory() throws Exception {
+    GroovyLang lang = new GroovyLang();
+    String source = "package snippet;\n" +
+        "public class Snippet {\n" +
+        "  @io.vertx.codetrans.annotations.CodeTranslate\n" +
+        "  public void snippet() {\n" +
+        "    System.out.println(\"abc\");\n" +
+        "  }\n" +
+        "}\n";
+    Result result = ConvertingProcessor.convertSource(ResultTest.class.getClassLoader(), Collections.singletonList(lang), source, "snippet.Snippet", "snippet").get(lang);
+    assertTrue(result instanceof Result.Source);
+    assertEquals(((Result.Source) convert(lang, "result/TestResult", "sourceResult")).getValue(), ((Result.Source) result).getValue());
   }
 }
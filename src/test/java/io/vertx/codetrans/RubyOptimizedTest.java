@@ -0,0 +1,53 @@
+package io.vertx.codetrans;
+
+import io.vertx.codetrans.lang.ruby.RubyLang;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class RubyOptimizedTest extends ConversionTestBase {
+
+  private RubyLang lang;
+
+  @Before
+  public void before() {
+    lang = new RubyLang().setOptimized(true);
+    ControlTest.o = null;
+    ControlTest.collected.clear();
+  }
+
+  private String source(String path, String method) {
+    return ((Result.Source) convert(lang, path, method)).getValue();
+  }
+
+  @Test
+  public void testForSequence() throws Exception {
+    String source = source("control/ForSequence", "start");
+    assertFalse(source.contains("frozen_string_literal"));
+    assertTrue(source.contains("while i < 10"));
+    run(lang, "control/ForSequence");
+    assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), ControlTest.collected);
+  }
+
+  @Test
+  public void testHoistLiteral() throws Exception {
+    String source = source("control/Return", "returnValue");
+    assertTrue(source.contains("module CodetransLiterals\n"));
+    assertTrue(source.contains(" = \"the_returned_value\".freeze unless const_defined?(:STR_"));
+    assertEquals(source.indexOf("\"the_returned_value\""), source.lastIndexOf("\"the_returned_value\""));
+    assertTrue(source.contains("CodetransLiterals::STR_"));
+    // Running again with the same pooled runtime does not reassign the constant
+    Script script = lang.loadScript(Thread.currentThread().getContextClassLoader(), source);
+    for (int i = 0;i < 2;i++) {
+      ControlTest.o = null;
+      script.run();
+      assertEquals("the_returned_value", ControlTest.o);
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package io.vertx.codetrans;
+
+import io.vertx.codetrans.lang.scala.ScalaLang;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class ScalaOptimizedTest extends ConversionTestBase {
+
+  private ScalaLang lang;
+
+  @Before
+  public void before() {
+    lang = new ScalaLang().setOptimized(true);
+    ControlTest.collected.clear();
+  }
+
+  private String source(String path, String method) {
+    return ((Result.Source) convert(lang, path, method)).getValue();
+  }
+
+  @Test
+  public void testForEach() throws Exception {
+    String source = source("control/ForEach", "start");
+    assertFalse(source.contains(".foreach("));
+    assertTrue(source.contains("while (_s_it.hasNext)"));
+    run(lang, "control/ForEach");
+    assertEquals(ControlTest.list, ControlTest.collected);
+  }
+
+  @Test
+  public void testForSequence() throws Exception {
+    String source = source("control/ForSequence", "start");
+    assertFalse(source.contains(" until "));
+    assertTrue(source.contains("while (i < 10)"));
+    run(lang, "control/ForSequence");
+    assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), ControlTest.collected);
+  }
+}
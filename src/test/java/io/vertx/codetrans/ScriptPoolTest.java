@@ -0,0 +1,69 @@
+package io.vertx.codetrans;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class ScriptPoolTest {
+
+  @Test
+  public void testBounded() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    ScriptPool<Object> pool = new ScriptPool<>(() -> {
+      created.incrementAndGet();
+      return new Object();
+    }, 2);
+    ExecutorService exec = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0;i < 40;i++) {
+        futures.add(exec.submit(() -> {
+          pool.execute(runtime -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+          });
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      exec.shutdown();
+    }
+    Assert.assertTrue(created.get() <= 2);
+    Assert.assertEquals(created.get(), pool.size());
+    Assert.assertTrue(maxRunning.get() <= 2);
+  }
+
+  @Test
+  public void testFailedCreation() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    ScriptPool<Object> pool = new ScriptPool<>(() -> {
+      if (created.incrementAndGet() > 1) {
+        throw new Exception("failed");
+      }
+      return new Object();
+    }, 2);
+    ScriptPool.Task<Object> nested = runtime -> pool.execute(other -> Assert.fail());
+    try {
+      pool.execute(nested);
+      Assert.fail();
+    } catch (Exception e) {
+      Assert.assertEquals("failed", e.getMessage());
+    }
+    Assert.assertEquals(1, pool.size());
+  }
+}
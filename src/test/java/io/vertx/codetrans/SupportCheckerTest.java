@@ -0,0 +1,77 @@
+package io.vertx.codetrans;
+
+import com.sun.source.tree.Tree;
+import io.vertx.codetrans.lang.groovy.GroovyLang;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class SupportCheckerTest {
+
+  private static Map<String, Map<Lang, Result>> convert(Lang lang, TranslationOptions options) throws Exception {
+    return ConvertingProcessor.convertMethods(SupportCheckerTest.class.getClassLoader(), Collections.singletonList(lang), "result/Unsupported.java", "result.Unsupported", options);
+  }
+
+  private static TranslationDiagnostic diagnostic(Map<String, Map<Lang, Result>> results, String method, Lang lang) {
+    Result result = results.get(method).get(lang);
+    assertTrue("Was expecting " + method + " to fail instead of " + result, result instanceof Result.Failure);
+    TranslationDiagnostic diagnostic = ((Result.Failure) result).getDiagnostic();
+    assertEquals("result.Unsupported." + method, diagnostic.getMethod());
+    assertEquals(lang.getExtension(), diagnostic.getLang());
+    return diagnostic;
+  }
+
+  @Test
+  public void testUnsupported() throws Exception {
+    GroovyLang lang = new GroovyLang();
+    Map<String, Map<Lang, Result>> results = convert(lang, new TranslationOptions());
+    TranslationDiagnostic shift = diagnostic(results, "shift", lang);
+    assertEquals(Tree.Kind.LEFT_SHIFT, shift.getKind());
+    assertEquals(17, shift.getLine());
+    assertEquals(13, shift.getColumn());
+    assertEquals(Tree.Kind.LEFT_SHIFT, diagnostic(results, "constantShift", lang).getKind());
+    assertEquals(Tree.Kind.TRY, diagnostic(results, "multipleCatches", lang).getKind());
+    assertEquals(Tree.Kind.FOR_LOOP, diagnostic(results, "multipleInitializers", lang).getKind());
+    assertEquals(Tree.Kind.MEMBER_REFERENCE, diagnostic(results, "constructorReference", lang).getKind());
+    assertTrue(results.get("enhancedFor").get(lang) instanceof Result.Source);
+    assertTrue(results.get("increments").get(lang) instanceof Result.Source);
+  }
+
+  @Test
+  public void testNotHandledByModelBuilder() throws Exception {
+    GroovyLang lang = new GroovyLang();
+    Map<String, Map<Lang, Result>> results = convert(lang, new TranslationOptions());
+    assertEquals(Tree.Kind.WHILE_LOOP, diagnostic(results, "whileLoop", lang).getKind());
+    assertEquals(Tree.Kind.PLUS_ASSIGNMENT, diagnostic(results, "compoundAssignment", lang).getKind());
+    assertEquals(Tree.Kind.NEW_ARRAY, diagnostic(results, "newArray", lang).getKind());
+    assertEquals(Tree.Kind.TRY, diagnostic(results, "finallyBlock", lang).getKind());
+  }
+
+  @Test
+  public void testConstantFolding() throws Exception {
+    GroovyLang lang = new GroovyLang();
+    Map<String, Map<Lang, Result>> results = convert(lang, new TranslationOptions().setConstantFolding(true));
+    assertTrue(results.get("constantShift").get(lang) instanceof Result.Source);
+    assertEquals(Tree.Kind.LEFT_SHIFT, diagnostic(results, "shift", lang).getKind());
+  }
+
+  @Test
+  public void testLangCapabilities() throws Exception {
+    GroovyLang lang = new GroovyLang() {
+      @Override
+      public boolean supports(Tree.Kind kind) {
+        return kind != Tree.Kind.ENHANCED_FOR_LOOP;
+      }
+    };
+    Map<String, Map<Lang, Result>> results = convert(lang, new TranslationOptions());
+    TranslationDiagnostic diagnostic = diagnostic(results, "enhancedFor", lang);
+    assertEquals(Tree.Kind.ENHANCED_FOR_LOOP, diagnostic.getKind());
+    assertEquals(51, diagnostic.getLine());
+  }
+}
@@ -0,0 +1,121 @@
+package io.vertx.codetrans;
+
+import io.vertx.codetrans.lang.groovy.GroovyLang;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.spi.VerticleFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class TranslatingVerticleFactoryTest {
+
+  private Vertx vertx;
+  private List<String> deployed;
+
+  @Before
+  public void before() {
+    vertx = Vertx.vertx();
+    deployed = new CopyOnWriteArrayList<>();
+    vertx.registerVerticleFactory(new VerticleFactory() {
+      @Override
+      public String prefix() {
+        return "fake";
+      }
+      @Override
+      public Verticle createVerticle(String verticleName, ClassLoader classLoader) throws Exception {
+        InputStream in = classLoader.getResourceAsStream(VerticleFactory.removePrefix(verticleName));
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+          buffer.write(b);
+        }
+        deployed.add(verticleName + "=" + buffer.toString("UTF-8"));
+        return new AbstractVerticle() {};
+      }
+    });
+  }
+
+  @After
+  public void after() {
+    vertx.close();
+  }
+
+  private String deploy(String identifier) throws Exception {
+    return deploy(identifier, new DeploymentOptions());
+  }
+
+  private String deploy(String identifier, DeploymentOptions options) throws Exception {
+    CompletableFuture<String> fut = new CompletableFuture<>();
+    vertx.deployVerticle(identifier, options, ar -> {
+      if (ar.succeeded()) {
+        fut.complete(ar.result());
+      } else {
+        fut.completeExceptionally(ar.cause());
+      }
+    });
+    return fut.get(20, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testDeployTranslation() throws Exception {
+    GroovyLang lang = new GroovyLang();
+    TranslatingVerticleFactory factory = new TranslatingVerticleFactory(lang, "fake");
+    vertx.registerVerticleFactory(factory);
+    String expected = ((Result.Source) ConversionTestBase.convert(lang, "module/Module", "module.Module", "start")).getValue();
+    deploy("codetrans-fake:module/Module.java");
+    deploy("codetrans-fake:module/Module.java");
+    assertEquals(1, factory.cacheSize());
+    assertEquals(2, deployed.size());
+    for (String verticle : deployed) {
+      assertEquals("fake:module/Module.groovy=" + expected, verticle);
+    }
+  }
+
+  @Test
+  public void testDeployInstances() throws Exception {
+    GroovyLang lang = new GroovyLang();
+    TranslatingVerticleFactory factory = new TranslatingVerticleFactory(lang, "fake", "start", 0);
+    vertx.registerVerticleFactory(factory);
+    // Without cache, the instances are created from the resolved translation
+    deploy("codetrans-fake:module/Module.java", new DeploymentOptions().setInstances(3));
+    assertEquals(0, factory.cacheSize());
+    assertEquals(3, deployed.size());
+  }
+
+  @Test
+  public void testCreateUnresolved() throws Exception {
+    TranslatingVerticleFactory factory = new TranslatingVerticleFactory(new GroovyLang(), "fake");
+    factory.init(vertx);
+    try {
+      factory.createVerticle("codetrans-fake:module/Module.java", TranslatingVerticleFactoryTest.class.getClassLoader());
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  @Test
+  public void testDeployFailure() throws Exception {
+    vertx.registerVerticleFactory(new TranslatingVerticleFactory(new GroovyLang(), "fake"));
+    try {
+      deploy("codetrans-fake:result/TestResult.java");
+      fail();
+    } catch (Exception expected) {
+    }
+    assertEquals(0, deployed.size());
+  }
+}
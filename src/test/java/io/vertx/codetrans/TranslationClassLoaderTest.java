@@ -0,0 +1,94 @@
+package io.vertx.codetrans;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class TranslationClassLoaderTest {
+
+  private static String read(URL url) throws Exception {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (InputStream in = url.openStream()) {
+      int b;
+      while ((b = in.read()) != -1) {
+        buffer.write(b);
+      }
+    }
+    return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testServeFromMemory() throws Exception {
+    TranslationClassLoader loader = new TranslationClassLoader(null);
+    loader.put("examples/Example.groovy", new Result.Source("println('hello')"));
+    URL url = loader.getResource("examples/Example.groovy");
+    assertEquals(TranslationClassLoader.PROTOCOL, url.getProtocol());
+    assertEquals("println('hello')", read(url));
+    assertNull(loader.getResource("examples/Missing.groovy"));
+  }
+
+  @Test
+  public void testEvictStale() throws Exception {
+    TranslationClassLoader loader = new TranslationClassLoader(null);
+    loader.put("examples/Example.groovy", "println('v1')");
+    URL v1 = loader.getResource("examples/Example.groovy");
+    loader.put("examples/Example.groovy", "println('v2')");
+    assertEquals("println('v2')", read(loader.getResource("examples/Example.groovy")));
+    assertEquals("println('v1')", read(v1));
+    assertTrue(loader.evict("examples/Example.groovy"));
+    assertNull(loader.getResource("examples/Example.groovy"));
+    loader.put("examples/Example.groovy", "println('v3')");
+    loader.put("examples/Example.groovy", new Result.Failure(new Exception()));
+    assertNull(loader.getResource("examples/Example.groovy"));
+  }
+
+  @Test
+  public void testBounded() throws Exception {
+    TranslationClassLoader loader = new TranslationClassLoader(null, 2);
+    loader.put("a.js", "a");
+    loader.put("b.js", "b");
+    assertNotNull(loader.getResource("a.js"));
+    loader.put("c.js", "c");
+    assertEquals(2, loader.size());
+    assertNotNull(loader.getResource("a.js"));
+    assertNull(loader.getResource("b.js"));
+    assertNotNull(loader.getResource("c.js"));
+  }
+
+  @Test
+  public void testShadowStaleParentResource() throws Exception {
+    Path dir = Files.createTempDirectory("codetrans-parent");
+    Path stale = dir.resolve("examples/Example.groovy");
+    Files.createDirectories(stale.getParent());
+    Files.write(stale, "println('stale')".getBytes(StandardCharsets.UTF_8));
+    try (URLClassLoader parent = new URLClassLoader(new URL[]{dir.toUri().toURL()}, null)) {
+      TranslationClassLoader loader = new TranslationClassLoader(parent);
+      assertEquals("println('stale')", read(loader.getResource("examples/Example.groovy")));
+      loader.put("examples/Example.groovy", "println('fresh')");
+      URL url = loader.getResource("examples/Example.groovy");
+      assertEquals(TranslationClassLoader.PROTOCOL, url.getProtocol());
+      assertEquals("println('fresh')", read(url));
+      List<URL> urls = Collections.list(loader.getResources("examples/Example.groovy"));
+      assertEquals(1, urls.size());
+      assertEquals("println('fresh')", read(urls.get(0)));
+      try (InputStream in = loader.getResourceAsStream("examples/Example.groovy")) {
+        assertNotNull(in);
+      }
+      loader.evict("examples/Example.groovy");
+      assertEquals("println('stale')", read(loader.getResource("examples/Example.groovy")));
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package io.vertx.codetrans;
+
+import com.sun.source.tree.Tree;
+import io.vertx.codetrans.lang.groovy.GroovyLang;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class TranslationLimitTest {
+
+  private static Result convert(Lang lang, TranslationOptions options) throws Exception {
+    return ConvertingProcessor.convert(TranslationLimitTest.class.getClassLoader(), Collections.singletonList(lang), "result/TestResult.java", "result.TestResult", "sourceResult", options).get(lang);
+  }
+
+  private static TranslationLimitException.Limit limit(Result result) {
+    assertTrue("Was expecting a failure instead of " + result, result instanceof Result.Failure);
+    Result.Failure failure = (Result.Failure) result;
+    assertTrue(failure.getCause() instanceof TranslationLimitException);
+    assertEquals("result.TestResult.sourceResult", failure.getDiagnostic().getMethod());
+    return ((TranslationLimitException) failure.getCause()).getLimit();
+  }
+
+  @Test
+  public void testWithinLimits() throws Exception {
+    GroovyLang lang = new GroovyLang();
+    Result result = convert(lang, new TranslationOptions().setMaxTime(60000).setMaxNodes(1000).setMaxOutputSize(1000));
+    assertTrue(result instanceof Result.Source);
+    assertEquals(((Result.Source) convert(lang, new TranslationOptions())).getValue(), ((Result.Source) result).getValue());
+  }
+
+  @Test
+  public void testMaxNodes() throws Exception {
+    assertEquals(TranslationLimitException.Limit.NODES, limit(convert(new GroovyLang(), new TranslationOptions().setMaxNodes(2))));
+  }
+
+  @Test
+  public void testMaxOutputSize() throws Exception {
+    assertEquals(TranslationLimitException.Limit.OUTPUT_SIZE, limit(convert(new GroovyLang(), new TranslationOptions().setMaxOutputSize(5))));
+  }
+
+  @Test
+  public void testMaxTime() throws Exception {
+    // The time spent checking the method is charged to the translation
+    GroovyLang lang = new GroovyLang() {
+      @Override
+      public boolean supports(Tree.Kind kind) {
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return true;
+      }
+    };
+    assertEquals(TranslationLimitException.Limit.TIME, limit(convert(lang, new TranslationOptions().setMaxTime(1))));
+  }
+
+  @Test
+  public void testClassLimits() throws Exception {
+    GroovyLang lang = new GroovyLang();
+    Map<String, Map<Lang, Result>> results = ConvertingProcessor.convertClass(TranslationLimitTest.class.getClassLoader(), Collections.singletonList(lang),
+        "result/TestResult.java", "result.TestResult", new TranslationOptions().setMaxOutputSize(5));
+    assertEquals(TranslationLimitException.Limit.OUTPUT_SIZE, limit(results.get("sourceResult").get(lang)));
+  }
+}
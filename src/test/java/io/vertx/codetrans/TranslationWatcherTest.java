@@ -0,0 +1,49 @@
+package io.vertx.codetrans;
+
+import io.vertx.codetrans.lang.groovy.GroovyLang;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class TranslationWatcherTest {
+
+  @Test
+  public void testIncrementalTranslation() throws Exception {
+    Path sourceDir = Files.createTempDirectory("codetrans-sources");
+    Path outputDir = Files.createTempDirectory("codetrans-translations");
+    Path source = sourceDir.resolve("module/Module.java");
+    Files.createDirectories(source.getParent());
+    Files.copy(Paths.get(TranslationWatcherTest.class.getClassLoader().getResource("module/Module.java").toURI()), source);
+    Path translation = outputDir.resolve("module/Module.groovy");
+    try (TranslationWatcher watcher = new TranslationWatcher(Collections.singletonList(new GroovyLang()), sourceDir, outputDir, new TranslationOptions(), TranslationWatcher.DEFAULT_DEBOUNCE, update -> {})) {
+      TranslationWatcher.Update update = watcher.translate(Collections.singleton(source), Collections.emptySet());
+      assertNull(update.getCompilationFailure());
+      assertEquals(Collections.singletonList(translation.toAbsolutePath()), update.getWritten());
+      assertEquals(((Result.Source) ConversionTestBase.convert(new GroovyLang(), "module/Module", "module.Module", "start")).getValue(),
+          new String(Files.readAllBytes(translation), "UTF-8"));
+
+      // Unchanged translation is not written again
+      update = watcher.translate(Collections.singleton(source), Collections.emptySet());
+      assertEquals(Collections.emptyList(), update.getWritten());
+
+      // A source that does not compile keeps its translations
+      Files.write(source, "package module; public class Module {".getBytes("UTF-8"));
+      update = watcher.translate(Collections.singleton(source), Collections.emptySet());
+      assertNotNull(update.getCompilationFailure());
+      assertTrue(Files.exists(translation));
+
+      Files.delete(source);
+      update = watcher.translate(Collections.emptySet(), Collections.singleton(source));
+      assertEquals(Collections.singletonList(translation.toAbsolutePath()), update.getDeleted());
+      assertFalse(Files.exists(translation));
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package io.vertx.codetrans;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class TreeShakingTest extends ConversionTestBase {
+
+  @Before
+  public void before() {
+    ControlTest.collected.clear();
+  }
+
+  @Test
+  public void testUnreachableHelpers() throws Exception {
+    Map<Lang, Result> results = ConvertingProcessor.convert(TreeShakingTest.class.getClassLoader(), Arrays.asList(langs()),
+        "control/TreeShaking.java", "control.TreeShaking", "start", new TranslationOptions().setTreeShaking(true));
+    for (Map.Entry<Lang, Result> entry : results.entrySet()) {
+      String source = ((Result.Source) entry.getValue()).getValue();
+      assertFalse(source, source.contains("debug"));
+      assertFalse(source, source.contains("traced"));
+      assertFalse(source, source.contains("tracePrefix"));
+      entry.getKey().loadScript(TreeShakingTest.class.getClassLoader(), source).run();
+      assertEquals(Arrays.asList("live", "end"), ControlTest.collected);
+      ControlTest.collected.clear();
+    }
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    for (Lang lang : langs()) {
+      String source = ((Result.Source) convert(lang, "control/TreeShaking", "start")).getValue();
+      assertTrue(source, source.contains("traced"));
+    }
+  }
+}
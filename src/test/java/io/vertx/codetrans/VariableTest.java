@@ -9,8 +9,17 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -19,6 +28,17 @@ public class VariableTest extends ConversionTestBase {
 
   public static final String constant = "foo";
   public static Object o;
+  public static final Queue<Object> collected = new ConcurrentLinkedQueue<>();
+
+  public static final Queue<Runnable> deferred = new ConcurrentLinkedQueue<>();
+
+  public static void collect(Object o) {
+    collected.add(o);
+  }
+
+  public static void defer(Runnable runnable) {
+    deferred.add(runnable);
+  }
 
   @Before
   public void before() {
@@ -41,6 +61,52 @@ public class VariableTest extends ConversionTestBase {
     });
   }
 
+  @Test
+  public void testConcurrentGlobals() throws Exception {
+    ExecutorService exec = Executors.newFixedThreadPool(4);
+    try {
+      for (Lang lang : Arrays.asList(new GroovyLang(), new JavaScriptLang(), new RubyLang())) {
+        collected.clear();
+        Script script = script(lang, "variable/ConcurrentGlobal", "collectGlobal");
+        Set<Object> expected = new HashSet<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0;i < 40;i++) {
+          String global = "vertx_" + i;
+          expected.add(global);
+          futures.add(exec.submit(() -> {
+            script.run(Collections.singletonMap("vertx", global));
+            return null;
+          }));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+        Assert.assertEquals(40, collected.size());
+        Assert.assertEquals(expected, new HashSet<>(collected));
+      }
+    } finally {
+      exec.shutdown();
+    }
+  }
+
+  @Test
+  public void testDeferredGlobals() throws Exception {
+    for (Lang lang : Arrays.asList(new GroovyLang(), new JavaScriptLang(), new RubyLang())) {
+      collected.clear();
+      deferred.clear();
+      Script script = script(lang, "variable/ConcurrentGlobal", "deferGlobal");
+      List<Object> expected = new ArrayList<>();
+      for (int i = 0;i < 4;i++) {
+        String global = "vertx_" + i;
+        expected.add(global);
+        script.run(Collections.singletonMap("vertx", global));
+      }
+      // The callbacks run after the runtimes were used by the next executions
+      deferred.forEach(Runnable::run);
+      Assert.assertEquals(expected, new ArrayList<>(collected));
+    }
+  }
+
   @Test
   public void testMemberExpression() throws Exception {
     runAll("variable/Variable", "memberExpression", () -> {
@@ -0,0 +1,30 @@
+package classtrans;
+
+import io.vertx.codetrans.LiteralExpressionTest;
+import io.vertx.codetrans.annotations.CodeTranslate;
+import io.vertx.support.TheEnum;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class Imports {
+
+  @CodeTranslate
+  public void enumConstant() throws Exception {
+    LiteralExpressionTest.enumresult = TheEnum.THE_CONSTANT;
+  }
+
+  @CodeTranslate
+  public void noImport() throws Exception {
+    LiteralExpressionTest.string = "no_import";
+  }
+
+  @CodeTranslate
+  public void helperEnumConstant() throws Exception {
+    assignEnum();
+  }
+
+  private void assignEnum() {
+    LiteralExpressionTest.enumresult = TheEnum.THE_CONSTANT;
+  }
+}
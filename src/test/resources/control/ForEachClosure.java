@@ -0,0 +1,17 @@
+package control;
+
+import io.vertx.codetrans.annotations.CodeTranslate;
+import io.vertx.codetrans.ControlTest;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class ForEachClosure {
+
+  @CodeTranslate
+  public void start() throws Exception {
+    for (String s : ControlTest.list) {
+      ControlTest.defer(() -> ControlTest.invoke(s));
+    }
+  }
+}
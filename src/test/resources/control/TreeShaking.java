@@ -0,0 +1,31 @@
+package control;
+
+import io.vertx.codetrans.annotations.CodeTranslate;
+import io.vertx.codetrans.ControlTest;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class TreeShaking {
+
+  private final boolean debugEnabled = false;
+  private final String tracePrefix = "trace_";
+
+  @CodeTranslate
+  public void start() throws Exception {
+    if (debugEnabled) {
+      debug("start");
+    } else {
+      ControlTest.invoke("live");
+    }
+    ControlTest.invoke(debugEnabled ? traced("end") : "end");
+  }
+
+  void debug(String msg) {
+    ControlTest.invoke(traced(msg));
+  }
+
+  String traced(String msg) {
+    return tracePrefix + msg;
+  }
+}
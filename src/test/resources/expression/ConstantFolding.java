@@ -0,0 +1,32 @@
+package expression;
+
+import io.vertx.codetrans.ConstantFoldingTest;
+import io.vertx.codetrans.annotations.CodeTranslate;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class ConstantFolding {
+
+  private static final String PREFIX = "prefix_";
+
+  @CodeTranslate
+  public void concat() throws Exception {
+    ConstantFoldingTest.string = "a" + "b" + 1;
+  }
+
+  @CodeTranslate
+  public void prefix() throws Exception {
+    ConstantFoldingTest.string = PREFIX + "value";
+  }
+
+  @CodeTranslate
+  public void multiply() throws Exception {
+    ConstantFoldingTest.number = 60 * 1000;
+  }
+
+  @CodeTranslate
+  public void divide() throws Exception {
+    ConstantFoldingTest.number = 7 / 2;
+  }
+}
@@ -0,0 +1,33 @@
+package json;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.codetrans.annotations.CodeTranslate;
+import io.vertx.codetrans.JsonTest;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class JsTyped {
+
+  @CodeTranslate
+  public void getStringFromParameter() throws Exception {
+    JsonObject obj = new JsonObject().put("foo", "foo_value");
+    JsonTest.o = foo(obj);
+  }
+
+  @CodeTranslate
+  public void getStringFromArrayParameter() throws Exception {
+    JsonArray arr = new JsonArray().add("foo_value");
+    JsonTest.o = first(arr);
+  }
+
+  private String foo(JsonObject obj) {
+    String s = obj.getString("foo");
+    return s;
+  }
+
+  private String first(JsonArray arr) {
+    return arr.getString(0);
+  }
+}
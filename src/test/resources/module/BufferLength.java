@@ -0,0 +1,16 @@
+package module;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.codetrans.annotations.CodeTranslate;
+import io.vertx.codetrans.ModuleTest;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class BufferLength {
+
+  @CodeTranslate
+  public void start() throws Exception {
+    ModuleTest.length = Buffer.buffer("the_buffer").length();
+  }
+}
@@ -0,0 +1,14 @@
+package result;
+
+import io.vertx.codetrans.annotations.CodeTranslate;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class NotCompiling {
+
+  @CodeTranslate
+  public void start() {
+    String s = undefined;
+  }
+}
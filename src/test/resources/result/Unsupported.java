@@ -0,0 +1,94 @@
+package result;
+
+import io.vertx.codetrans.annotations.CodeTranslate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class Unsupported {
+
+  @CodeTranslate
+  public void shift() {
+    int a = 1;
+    int b = a << 2;
+  }
+
+  @CodeTranslate
+  public void constantShift() {
+    int b = 1 << 2;
+  }
+
+  @CodeTranslate
+  public void multipleCatches() {
+    try {
+      System.out.println("abc");
+    } catch (IllegalStateException e) {
+      System.out.println("def");
+    } catch (RuntimeException e) {
+      System.out.println("ghi");
+    }
+  }
+
+  @CodeTranslate
+  public void multipleInitializers() {
+    for (int i = 0, j = 0;i < 10;i++) {
+      System.out.println("abc");
+    }
+  }
+
+  @CodeTranslate
+  public void constructorReference() {
+    Supplier<List<String>> supplier = ArrayList::new;
+  }
+
+  @CodeTranslate
+  public void enhancedFor() {
+    List<String> list = new ArrayList<>();
+    for (String s : list) {
+      System.out.println(s);
+    }
+  }
+
+  @CodeTranslate
+  public void whileLoop() {
+    int i = 0;
+    while (i < 3) {
+      i++;
+    }
+  }
+
+  @CodeTranslate
+  public void compoundAssignment() {
+    int i = 0;
+    i += 2;
+  }
+
+  @CodeTranslate
+  public void newArray() {
+    String[] array = new String[2];
+  }
+
+  @CodeTranslate
+  public void finallyBlock() {
+    try {
+      System.out.println("abc");
+    } catch (RuntimeException e) {
+      System.out.println("def");
+    } finally {
+      System.out.println("ghi");
+    }
+  }
+
+  @CodeTranslate
+  public void increments() {
+    int a = 0;
+    for (int i = 0;i < 3;i++) {
+      a++;
+    }
+    int b = ++a;
+  }
+}
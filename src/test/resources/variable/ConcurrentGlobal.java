@@ -0,0 +1,21 @@
+package variable;
+
+import io.vertx.codetrans.annotations.CodeTranslate;
+import io.vertx.codetrans.VariableTest;
+import io.vertx.core.AbstractVerticle;
+
+/**
+ * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
+ */
+public class ConcurrentGlobal extends AbstractVerticle {
+
+  @CodeTranslate
+  public void collectGlobal() throws Exception {
+    VariableTest.collect(vertx);
+  }
+
+  @CodeTranslate
+  public void deferGlobal() throws Exception {
+    VariableTest.defer(() -> VariableTest.collect(vertx));
+  }
+}